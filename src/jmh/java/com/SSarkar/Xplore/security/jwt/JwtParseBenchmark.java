@@ -0,0 +1,89 @@
+package com.SSarkar.Xplore.security.jwt;
+
+import ch.qos.logback.classic.Level;
+import com.SSarkar.Xplore.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.SecretKey;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies a token the way {@link JwtAuthFilter} does through {@link JwtUtils#parseClaims}, against the
+ * old approach of decoding the secret and building a key and parser for every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtParseBenchmark {
+
+    private String jwtSecret;
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        // Without a logback config the root level is DEBUG; the app runs at INFO
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+
+        byte[] secret = new byte[64];
+        new SecureRandom().nextBytes(secret);
+        jwtSecret = Encoders.BASE64.encode(secret);
+        jwtUtils = new JwtUtils(jwtSecret, TimeUnit.HOURS.toMillis(10));
+
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("alice");
+        token = jwtUtils.generateTokenFromUsername(user);
+    }
+
+    /**
+     * One verification with the parser {@link JwtUtils} builds once.
+     */
+    @Benchmark
+    public Claims prebuiltParser() {
+        return jwtUtils.parseClaims(token);
+    }
+
+    /**
+     * One verification with a key and parser built for the call.
+     */
+    @Benchmark
+    public Claims perCallParser() {
+        return parseWithNewParser(token);
+    }
+
+    /**
+     * What the filter used to do per request: validate the token twice, then parse it again for the username.
+     */
+    @Benchmark
+    public String perCallParserThreeTimes() {
+        parseWithNewParser(token);
+        parseWithNewParser(token);
+        return parseWithNewParser(token).getSubject();
+    }
+
+    private Claims parseWithNewParser(String jwt) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(jwt).getPayload();
+    }
+}
@@ -0,0 +1,97 @@
+package com.SSarkar.Xplore.service.email;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Renders the notification email with a parsed {@link EmailTemplate} and, as the baseline, with
+ * {@link String#format} over the same HTML, which is how the emails were built before the templates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    private static final String SOURCE = "templates/email/notification.html";
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{\\s*(\\w+)\\s*}}");
+
+    private EmailTemplate template;
+    private Map<String, String> values;
+
+    private String format;
+    private Object[] formatArgs;
+
+    @Setup
+    public void setUp() throws IOException {
+        String source;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(SOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing " + SOURCE + " on the classpath");
+            }
+            source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        template = EmailTemplate.parse("notification", source);
+
+        values = new LinkedHashMap<>();
+        values.put("actorMarginBottom", "16px");
+        values.put("actorName", "alice");
+        values.put("actorAvatarUrl", "https://cdn.example.com/avatars/alice.png");
+        values.put("defaultAvatarUrl", "https://cdn.example.com/avatars/default.png");
+        values.put("actionText", "commented on your post");
+        values.put("postPreview", "<div class=\"post-preview\">Just shipped the new feed, 100% keyset paging now...</div>\n");
+        values.put("callToAction", "    <div class=\"cta-section\">\n"
+                + "        <a href=\"https://xplore.example.com/posts/1\" class=\"cta-button\">\n"
+                + "            View Full Post →\n"
+                + "        </a>\n"
+                + "    </div>\n");
+        values.put("year", "2026");
+
+        // Same HTML as a format string: literal '%' escaped, each placeholder an indexed %s argument
+        List<String> argNames = new ArrayList<>(values.keySet());
+        Matcher matcher = PLACEHOLDER.matcher(source.replace("%", "%%"));
+        StringBuilder formatBuilder = new StringBuilder();
+        while (matcher.find()) {
+            int index = argNames.indexOf(matcher.group(1)) + 1;
+            matcher.appendReplacement(formatBuilder, "%" + index + "\\$s");
+        }
+        format = matcher.appendTail(formatBuilder).toString();
+        formatArgs = argNames.stream().map(values::get).toArray();
+
+        if (!template.render(values).equals(String.format(format, formatArgs))) {
+            throw new IllegalStateException("Template and format output differ");
+        }
+    }
+
+    @Benchmark
+    public String template() {
+        return template.render(values);
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        return String.format(format, formatArgs);
+    }
+}
@@ -0,0 +1,93 @@
+package com.SSarkar.Xplore.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Dedicated executors for work that blocks on slow peers.
+ * <p>
+ * Outgoing email: the email job worker submits provider requests to {@code emailExecutor}, so a burst
+ * of emails queues up in a bounded pool of its own instead of the shared {@code @Async} executor.
+ * Queue depth, pool size and completed task counts are published by Spring Boot's executor metrics
+ * ({@code executor.*} tagged {@code name=emailExecutor}); rejected sends are counted in {@code email.rejected}.
+ * <p>
+ * Notification streams: {@code notificationStreamExecutor} writes queued events to the open SSE connections,
+ * so a client that reads slowly never holds up the transaction that produced the event.
+ */
+@Configuration
+@Slf4j
+public class AsyncConfig {
+
+    public static final String EMAIL_EXECUTOR = "emailExecutor";
+    public static final String NOTIFICATION_STREAM_EXECUTOR = "notificationStreamExecutor";
+
+    /**
+     * What happens to an email once the executor's queue is full.
+     */
+    public enum OverflowPolicy {
+        // The submitting thread sends the email itself, which slows the producer down (backpressure).
+        CALLER_RUNS,
+        // The submitter gets a TaskRejectedException; the email job worker then leaves the jobs for a later poll.
+        ABORT,
+        // The request is dropped and only counted; its jobs are claimed again once their lease runs out.
+        DISCARD
+    }
+
+    @Bean(EMAIL_EXECUTOR)
+    public ThreadPoolTaskExecutor emailExecutor(@Value("${app.email.executor.concurrency}") int concurrency,
+                                                @Value("${app.email.executor.queue-capacity}") int queueCapacity,
+                                                @Value("${app.email.executor.overflow-policy}") OverflowPolicy overflowPolicy,
+                                                @Value("${app.email.executor.virtual-threads}") boolean virtualThreads,
+                                                MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("email-");
+        executor.setVirtualThreads(virtualThreads);
+        executor.setRejectedExecutionHandler(countingRejections(overflowPolicy, meterRegistry));
+        // Let queued emails go out on shutdown instead of silently dropping them.
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Each stream has at most one task here at a time (see NotificationStreamRegistry), so the queue
+     * is bounded by the number of open streams.
+     */
+    @Bean(NOTIFICATION_STREAM_EXECUTOR)
+    public ThreadPoolTaskExecutor notificationStreamExecutor(@Value("${app.notifications.stream.sender-threads}") int senderThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(senderThreads);
+        executor.setMaxPoolSize(senderThreads);
+        executor.setThreadNamePrefix("sse-");
+        return executor;
+    }
+
+    private static RejectedExecutionHandler countingRejections(OverflowPolicy policy, MeterRegistry meterRegistry) {
+        RejectedExecutionHandler delegate = switch (policy) {
+            case CALLER_RUNS -> new ThreadPoolExecutor.CallerRunsPolicy();
+            case ABORT -> new ThreadPoolExecutor.AbortPolicy();
+            case DISCARD -> new ThreadPoolExecutor.DiscardPolicy();
+        };
+        Counter rejected = Counter.builder("email.rejected")
+                .description("Emails that did not fit in the email executor's queue")
+                .tag("policy", policy.name())
+                .register(meterRegistry);
+
+        return (task, pool) -> {
+            rejected.increment();
+            log.warn("Email executor queue is full ({} queued), applying {}", pool.getQueue().size(), policy);
+            delegate.rejectedExecution(task, pool);
+        };
+    }
+}
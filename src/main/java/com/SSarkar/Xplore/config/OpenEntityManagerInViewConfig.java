@@ -0,0 +1,33 @@
+package com.SSarkar.Xplore.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Keeps one persistence context open for the whole request (open-in-view), like Spring Boot's default,
+ * except on long-lived streaming endpoints.
+ * <p>
+ * Once a request has run a query, its persistence context holds on to the pooled JDBC connection until the
+ * request ends. For an SSE stream that is the lifetime of the stream, so a handful of idle tabs could
+ * exhaust the pool; those endpoints only use short repository transactions instead.
+ * Boot's own interceptor is switched off with {@code spring.jpa.open-in-view=false}.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class OpenEntityManagerInViewConfig implements WebMvcConfigurer {
+
+    private static final String[] STREAMING_PATHS = {"/api/v1/notifications/stream"};
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(interceptor).excludePathPatterns(STREAMING_PATHS);
+    }
+}
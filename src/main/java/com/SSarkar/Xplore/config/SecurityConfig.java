@@ -2,6 +2,7 @@ package com.SSarkar.Xplore.config;
 
 import com.SSarkar.Xplore.security.AuthEntryPoint;
 import com.SSarkar.Xplore.security.jwt.JwtAuthFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -55,6 +56,8 @@ public class SecurityConfig {
                 // 3. Define authorization rules
                 .authorizeHttpRequests(authorize -> authorize
                         // Allow all requests to /api/auth/** (e.g., /register, /login)
+                        // Async dispatches (e.g. the notification SSE stream) were already authorized on the original request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**","/actuator/health","/ping","/api/v1/notifications/unsubscribe").permitAll()
                         // Require authentication for any other request
                         .anyRequest().authenticated()
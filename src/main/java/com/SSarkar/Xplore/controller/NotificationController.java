@@ -6,10 +6,12 @@ import com.SSarkar.Xplore.service.contract.NotificationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -49,6 +51,14 @@ public class NotificationController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Live alternative to polling /unread-count: pushes new notifications and badge changes as they happen.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications(@AuthenticationPrincipal UserDetails currentUserDetails) {
+        return notificationService.openStream(currentUserDetails);
+    }
+
 //    @GetMapping("/unsubscribe")
 //    public ResponseEntity<String> unsubscribe(@RequestParam("token") String token) {
 //        notificationService.unsubscribeUser(token);
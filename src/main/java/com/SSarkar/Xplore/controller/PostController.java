@@ -84,6 +84,18 @@ public class PostController {
         return ResponseEntity.ok(posts);
     }
 
+    /**
+     * Cursor mode of {@code /feed}, selected whenever a {@code cursor} parameter is present.
+     * Send an empty cursor for the first page, then the {@code nextCursor} of the previous response.
+     */
+    @GetMapping(value = "/feed", params = "cursor")
+    public ResponseEntity<CursorPagedResponseDTO<PostResponseDTO>> getTopLevelPostsByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        return ResponseEntity.ok(postService.getFeedPosts(cursor, size, currentUser));
+    }
+
     @GetMapping("/following")
     public ResponseEntity<PagedResponseDTO<PostResponseDTO>> getFollowingPosts(
             @PageableDefault(size = 10, page = 0, sort = "createdAt",direction = Sort.Direction.DESC) Pageable pageable,
@@ -94,6 +106,14 @@ public class PostController {
         return ResponseEntity.ok(posts);
     }
 
+    @GetMapping(value = "/following", params = "cursor")
+    public ResponseEntity<CursorPagedResponseDTO<PostResponseDTO>> getFollowingPostsByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        return ResponseEntity.ok(postService.getAllFollowingPost(cursor, size, currentUser));
+    }
+
     @GetMapping("/{uuid}")
     public ResponseEntity<PostResponseDTO> getPostByUuid(
             @PathVariable UUID uuid,
@@ -133,13 +153,26 @@ public class PostController {
     }
 
     @PostMapping("/{postUuid}/like")
-    public ResponseEntity<HashMap<String, String>> likePost(
+    public ResponseEntity<LikeResponseDTO> toggleLike(
             @PathVariable UUID postUuid,
             @AuthenticationPrincipal UserDetails currentUser) {
-        String msg = postService.likePost(postUuid, currentUser);
-        HashMap<String, String> map = new HashMap<>();
-        map.put("message", msg);
-        return ResponseEntity.ok(map);
+        return ResponseEntity.ok(postService.toggleLike(postUuid, currentUser));
+    }
+
+    // Idempotent variants: repeating them (e.g. a double tap) leaves the same state as doing them once.
+
+    @PutMapping("/{postUuid}/like")
+    public ResponseEntity<LikeResponseDTO> likePost(
+            @PathVariable UUID postUuid,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        return ResponseEntity.ok(postService.likePost(postUuid, currentUser));
+    }
+
+    @DeleteMapping("/{postUuid}/like")
+    public ResponseEntity<LikeResponseDTO> unlikePost(
+            @PathVariable UUID postUuid,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        return ResponseEntity.ok(postService.unlikePost(postUuid, currentUser));
     }
 
     @PostMapping(value = "/{parentPostUuid}/comments", consumes = { MediaType.MULTIPART_FORM_DATA_VALUE })
@@ -159,6 +192,19 @@ public class PostController {
         }
     }
 
+    /**
+     * Direct replies to a post or comment, oldest first. Each reply carries its own {@code commentCount},
+     * so clients expand a reply by calling this endpoint again with the reply's UUID.
+     */
+    @GetMapping("/{uuid}/comments")
+    public ResponseEntity<CursorPagedResponseDTO<PostResponseDTO>> getComments(
+            @PathVariable UUID uuid,
+            @RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        return ResponseEntity.ok(postService.getComments(uuid, cursor, size, currentUser));
+    }
+
     @GetMapping("/user/{uuid}")
     public ResponseEntity<PagedResponseDTO<PostResponseDTO>> getUserPosts(
             @PathVariable UUID uuid,
@@ -169,6 +215,15 @@ public class PostController {
         return ResponseEntity.ok(posts);
     }
 
+    @GetMapping(value = "/user/{uuid}", params = "cursor")
+    public ResponseEntity<CursorPagedResponseDTO<PostResponseDTO>> getUserPostsByCursor(
+            @PathVariable UUID uuid,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        return ResponseEntity.ok(postService.getPostsByUser(uuid, cursor, size, currentUser));
+    }
+
     @GetMapping("/likes/{uuid}")
     public ResponseEntity<PagedResponseDTO<PostResponseDTO>> getLikedPosts(
             @PathVariable UUID uuid,
@@ -178,6 +233,14 @@ public class PostController {
         return ResponseEntity.ok(posts);
     }
 
+    @GetMapping(value = "/likes/{uuid}", params = "cursor")
+    public ResponseEntity<CursorPagedResponseDTO<PostResponseDTO>> getLikedPostsByCursor(
+            @PathVariable UUID uuid,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(postService.getLikedPostsByUser(uuid, cursor, size));
+    }
+
     @GetMapping("/shorts")
     public ResponseEntity<PagedResponseDTO<PostResponseDTO>> getShorts(
             @PageableDefault(size = 10, page = 0, sort = "createdAt",direction = Sort.Direction.DESC) Pageable pageable,
@@ -186,5 +249,13 @@ public class PostController {
         return ResponseEntity.ok(posts);
     }
 
+    @GetMapping(value = "/shorts", params = "cursor")
+    public ResponseEntity<CursorPagedResponseDTO<PostResponseDTO>> getShortsByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal UserDetails currentUser) {
+        return ResponseEntity.ok(postService.getAllShorts(cursor, size, currentUser));
+    }
+
 
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 @Data
@@ -15,6 +16,8 @@ public class NotificationResponseDTO {
     private UUID senderUuid;
     private String senderUsername;
     private String senderProfilePictureUrl;
+    private int actorCount; // Number of distinct users behind a coalesced notification; the sender is the most recent one
+    private List<String> recentActorUsernames; // Most recent actors, newest first
     private UUID relatedEntityUuid; // e.g., Post UUID for likes/comments, User UUID for follows
     private boolean isRead;
     private Instant createdAt;
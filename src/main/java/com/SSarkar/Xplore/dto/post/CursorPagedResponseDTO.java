@@ -0,0 +1,27 @@
+package com.SSarkar.Xplore.dto.post;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page of a cursor-paginated listing. Unlike {@link PagedResponseDTO} it carries no totals,
+ * so producing it never requires a COUNT query.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPagedResponseDTO<T> {
+
+    private List<T> content;
+
+    // Opaque cursor for the next page; null when this is the last page.
+    private String nextCursor;
+
+    private boolean hasNext;
+
+}
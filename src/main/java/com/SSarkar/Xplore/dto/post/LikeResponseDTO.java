@@ -0,0 +1,21 @@
+package com.SSarkar.Xplore.dto.post;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resulting state of a like, unlike or toggle request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LikeResponseDTO {
+
+    // Whether the current user likes the post after the request
+    private boolean liked;
+
+    private long likeCount;
+
+    private String message;
+}
@@ -0,0 +1,73 @@
+package com.SSarkar.Xplore.dto.post;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position in a listing ordered by {@code (createdAt DESC, id DESC)}, or by {@code (createdAt ASC, id ASC)} for comment replies.
+ * Clients only ever see the opaque, URL-safe string produced by {@link #encode()} and send it back unchanged.
+ *
+ * @param createdAt Creation time of the last row on the previous page.
+ * @param id        Database ID of that row, used as a tie-breaker for equal timestamps.
+ * @param segment   For listings made of consecutive parts, each ordered on its own (the home feed's timeline,
+ *                  then its discovery posts), the part that row came from. Always 0 for other listings.
+ */
+public record PostCursor(Instant createdAt, long id, int segment) {
+
+    /**
+     * Cursor that sorts before every real row, i.e. the first page.
+     */
+    public static final PostCursor START = new PostCursor(Instant.parse("9999-12-31T23:59:59Z"), Long.MAX_VALUE);
+
+    /**
+     * Cursor that sorts before every real row in an oldest-first listing.
+     */
+    public static final PostCursor OLDEST = new PostCursor(Instant.EPOCH, 0L);
+
+    public PostCursor(Instant createdAt, long id) {
+        this(createdAt, id, 0);
+    }
+
+    /**
+     * Cursor that sorts before every real row of the given segment.
+     */
+    public static PostCursor startOf(int segment) {
+        return new PostCursor(START.createdAt(), START.id(), segment);
+    }
+
+    public String encode() {
+        String raw = createdAt.getEpochSecond() + ":" + createdAt.getNano() + ":" + id;
+        if (segment != 0) {
+            raw += ":" + segment;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor sent by the client. A blank cursor means "start from the newest row".
+     *
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode()}.
+     */
+    public static PostCursor decode(String cursor) {
+        return decode(cursor, START);
+    }
+
+    /**
+     * Same as {@link #decode(String)}, with the cursor to use when the client sends a blank one.
+     */
+    public static PostCursor decode(String cursor, PostCursor whenBlank) {
+        if (cursor == null || cursor.isBlank()) {
+            return whenBlank;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            Instant createdAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            int segment = parts.length > 3 ? Integer.parseInt(parts[3]) : 0;
+            return new PostCursor(createdAt, Long.parseLong(parts[2]), segment);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -40,7 +40,12 @@ public class PostResponseDTO {
     // --- Fields for Comments ---
     private UUID parentPostUuid;
     private List<PostResponseDTO> comments;
+    // Cursor for GET /api/posts/{uuid}/comments to load the replies after those in comments; null when all are included.
+    private String commentsNextCursor;
+    // Total number of comments in the thread below this post, at any depth
     private long commentCount;
+    // Number of direct replies, i.e. the comments a client can expand via GET /api/posts/{uuid}/comments
+    private long replyCount;
     private long shareCount;
     private int depth;
 
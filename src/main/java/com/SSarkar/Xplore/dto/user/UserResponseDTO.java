@@ -13,12 +13,14 @@ public class UserResponseDTO {
     private String username;
     private String email;
     private String profilePictureUrl;
-    private int followersCount;
-    private int followingCount;
-    private int postCount;
+    private long followersCount;
+    private long followingCount;
+    private long postCount;
     private String fullName;
     private String bio ;
     private boolean isCurrentUserFollowing;
+    // Whether this user follows the current user
+    private boolean followsCurrentUser;
     private boolean emailNotificationsEnabled;
     private Instant createdAt;
 
@@ -0,0 +1,74 @@
+package com.SSarkar.Xplore.entity;
+
+import com.SSarkar.Xplore.entity.enums.EmailJobStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * A rendered email waiting to be handed to the email provider, or the record of one that was.
+ * Every outgoing email goes through this table, so a provider outage delays mail instead of losing it.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "email_jobs",
+        indexes = {
+                @Index(name = "idx_email_jobs_status_available", columnList = "status, available_at, id")
+        })
+public class EmailJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Identifies what the email is about (e.g. one notification, one digest, one OTP), so enqueueing the
+     * same email twice is a no-op.
+     */
+    @Column(name = "idempotency_key", nullable = false, unique = true)
+    private String idempotencyKey;
+
+    /**
+     * Kind of email ("otp", "notification", "digest"), used to group sends and tag metrics.
+     */
+    @Column(nullable = false)
+    private String type;
+
+    @Column(nullable = false)
+    private String recipientEmail;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String htmlContent;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EmailJobStatus status = EmailJobStatus.PENDING;
+
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    /**
+     * The job is not picked up before this time: pushed forward while a worker holds it (a lease)
+     * and by the retry backoff after a failure.
+     */
+    @Column(name = "available_at", nullable = false)
+    private Instant availableAt;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    private Instant sentAt;
+}
@@ -8,13 +8,21 @@ import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Getter
 @Setter
 @NoArgsConstructor
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications",
+        indexes = {
+                // Lookup of the row a new like/comment is coalesced into.
+                @Index(name = "idx_notifications_coalesce", columnList = "recipient_id, related_entity_uuid, type, created_at"),
+                // Lookup of recipients whose digest email is due.
+                @Index(name = "idx_notifications_email_pending", columnList = "email_pending_since, recipient_id")
+        })
 public class Notification {
 
     @Id
@@ -35,6 +43,7 @@ public class Notification {
 
     /**
      * The user who triggered the notification (e.g., the one who followed, liked, or commented).
+     * For a coalesced notification this is the most recent actor.
      * Can be null for system-generated notifications in the FUTURE.
      */
     @ManyToOne(fetch = FetchType.LAZY)
@@ -63,6 +72,36 @@ public class Notification {
      */
     private UUID relatedEntityUuid;
 
+    /**
+     * Whether the related post is a comment, resolved when the notification is created so listing
+     * notifications never has to look the post up. Null for rows created before this was stored.
+     */
+    private Boolean targetIsComment;
+
+    /**
+     * Number of distinct users merged into this notification ("bob and 41 others liked your post"),
+     * kept in step with its rows in {@code notification_actors}. An unlike does not take a user back out:
+     * the notification records that they acted.
+     */
+    @Column(nullable = false)
+    private int actorCount = 1;
+
+    /**
+     * Usernames of the most recent actors, newest first, comma-separated.
+     */
+    @Column(columnDefinition = "TEXT")
+    private String recentActors;
+
+    /**
+     * Set when the notification is waiting to go out in the recipient's next digest email, cleared once sent.
+     * Keeps its original value when more actions are coalesced into the notification.
+     */
+    @Column(name = "email_pending_since")
+    private Instant emailPendingSince;
+
+    /**
+     * Creation time of the notification, moved forward every time another action is merged into it.
+     */
     @CreationTimestamp
     private Instant createdAt;
 
@@ -71,5 +110,33 @@ public class Notification {
         this.sender = sender;
         this.type = type;
         this.relatedEntityUuid = relatedEntityUuid;
+        if (sender != null) {
+            this.recentActors = sender.getUsername();
+        }
+    }
+
+    public List<String> getRecentActorUsernames() {
+        return recentActors == null || recentActors.isEmpty() ? List.of() : List.of(recentActors.split(","));
+    }
+
+    /**
+     * Merges another action into this notification: the actor becomes the sender, the notification
+     * moves back to the top of the recipient's list and is shown as unread again.
+     *
+     * @param newActor Whether the actor had not acted on this notification before (e.g. not for unlike + like again),
+     *                 as recorded in {@code notification_actors}; only new actors are counted.
+     */
+    public void addActor(User actor, boolean newActor, int maxRecentActors) {
+        if (newActor) {
+            actorCount++;
+        }
+        List<String> actors = new ArrayList<>(getRecentActorUsernames());
+        actors.remove(actor.getUsername());
+        actors.add(0, actor.getUsername());
+
+        this.sender = actor;
+        this.recentActors = String.join(",", actors.subList(0, Math.min(actors.size(), maxRecentActors)));
+        this.createdAt = Instant.now();
+        this.isRead = false;
     }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.SSarkar.Xplore.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * One user who acted on a (possibly coalesced) notification.
+ * Lets {@link Notification#getActorCount()} count distinct users rather than actions,
+ * however long ago the user last acted.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "notification_actors",
+        uniqueConstraints = {
+                // A user is counted at most once per notification.
+                @UniqueConstraint(columnNames = {"notification_id", "actor_id"})
+        })
+public class NotificationActor {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "notification_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Notification notification;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "actor_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User actor;
+}
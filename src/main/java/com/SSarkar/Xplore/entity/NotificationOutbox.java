@@ -0,0 +1,82 @@
+package com.SSarkar.Xplore.entity;
+
+import com.SSarkar.Xplore.entity.enums.NotificationType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A notification that has been requested but not yet delivered.
+ * Rows are written in the same transaction as the like/comment/follow that caused them,
+ * and turned into {@link Notification}s (plus emails) later by the outbox dispatcher.
+ * A row is deleted once it has been delivered.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "notification_outbox",
+        indexes = {
+                @Index(name = "idx_notification_outbox_available", columnList = "available_at, id")
+        })
+public class NotificationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "recipient_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User recipient;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "sender_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User sender;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NotificationType type;
+
+    private UUID relatedEntityUuid;
+
+    /**
+     * Text of the comment that triggered the notification, used as the email excerpt.
+     */
+    @Column(columnDefinition = "TEXT")
+    private String comment;
+
+    /**
+     * The row is not picked up by the dispatcher before this time.
+     * Claiming a row pushes it forward (a lease), and a failed delivery pushes it forward by the retry backoff.
+     */
+    @Column(name = "available_at", nullable = false)
+    private Instant availableAt;
+
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    public NotificationOutbox(User sender, User recipient, NotificationType type, UUID relatedEntityUuid, String comment) {
+        this.sender = sender;
+        this.recipient = recipient;
+        this.type = type;
+        this.relatedEntityUuid = relatedEntityUuid;
+        this.comment = comment;
+        this.availableAt = Instant.now();
+    }
+}
@@ -17,7 +17,15 @@ import java.util.UUID;
 @Setter
 @ToString
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+        // Prefix (LIKE 'path%') lookups load a whole thread or subtree in one range scan.
+        @Index(name = "idx_posts_thread_path", columnList = "thread_path"),
+        // Newest-first keyset reads of the home feed: discovery posts, and the posts of authors merged in on read.
+        @Index(name = "idx_posts_created", columnList = "created_at, id"),
+        @Index(name = "idx_posts_author_created", columnList = "author_id, created_at, id"),
+        // Oldest-first pages of a post's direct replies.
+        @Index(name = "idx_posts_parent_created", columnList = "parent_post_id, created_at, id")
+})
 @EqualsAndHashCode(of = "uuid")
 public class Post {
 
@@ -37,9 +45,19 @@ public class Post {
     @Column(nullable = true, columnDefinition = "TEXT")
     private String content;
 
+    // Nesting level in the thread: 0 for top-level posts, parent depth + 1 for comments. Set when the post is written.
     @Column(name = "depth")
     private Integer depth;
 
+    // ID of the top-level post of the thread this post belongs to (its own ID for top-level posts).
+    @Column(name = "root_post_id")
+    private Long rootPostId;
+
+    // Materialized path of IDs from the thread root down to this post, e.g. "12/45/78/".
+    // Every post in the subtree of a post shares its path as a prefix.
+    @Column(name = "thread_path", columnDefinition = "TEXT")
+    private String threadPath;
+
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "post_image_urls", joinColumns = @JoinColumn(name = "post_id"))
     @Column(name = "image_url", columnDefinition = "TEXT")
@@ -60,8 +78,25 @@ public class Post {
     @UpdateTimestamp
     private Instant updatedAt;
 
+    // Written behind by ShareCountAggregator, never by entity updates
+    @Column(updatable = false)
     private long shareCount = 0; // DEFAULT val = 0
 
+    // --- Denormalized counters ---
+    // Only changed through the atomic increments in PostRepository (never written by entity updates,
+    // so a stale loaded copy cannot overwrite them) and repaired by PostCounterReconciliationJob.
+
+    // Number of direct replies
+    @Column(name = "comment_count", nullable = false, updatable = false)
+    private long commentCount = 0;
+
+    // Number of posts anywhere below this one in the thread
+    @Column(name = "descendant_count", nullable = false, updatable = false)
+    private long descendantCount = 0;
+
+    @Column(name = "like_count", nullable = false, updatable = false)
+    private long likeCount = 0;
+
     // --- Relationships ---
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -93,4 +128,17 @@ public class Post {
         comments.remove(comment);
         comment.setParentPost(null);
     }
+
+    /**
+     * IDs of every post above this one in its thread, read from the thread path (root first).
+     */
+    public List<Long> ancestorIds() {
+        String[] pathIds = threadPath.split("/");
+        List<Long> ancestorIds = new ArrayList<>(pathIds.length - 1);
+        // The last element of the path is this post itself.
+        for (int i = 0; i < pathIds.length - 1; i++) {
+            ancestorIds.add(Long.parseLong(pathIds[i]));
+        }
+        return ancestorIds;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.SSarkar.Xplore.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+
+/**
+ * One row of a user's precomputed home timeline.
+ * Rows are written when a post is published (fan-out-on-write), so the feed
+ * can be served as a ready-ordered slice of this table instead of ranking the whole posts table.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "timeline_entries",
+        uniqueConstraints = {
+                // A post appears at most once in a given user's timeline.
+                @UniqueConstraint(columnNames = {"owner_id", "post_id"})
+        },
+        indexes = {
+                @Index(name = "idx_timeline_owner_created", columnList = "owner_id, created_at")
+        })
+public class TimelineEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The user whose feed this entry belongs to.
+     */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "owner_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User owner;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "post_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Post post;
+
+    /**
+     * Copy of the post's creation time, so the timeline can be ordered without joining posts.
+     */
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public TimelineEntry(User owner, Post post) {
+        this.owner = owner;
+        this.post = post;
+        this.createdAt = post.getCreatedAt();
+    }
+}
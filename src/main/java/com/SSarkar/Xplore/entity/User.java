@@ -55,6 +55,20 @@ public class User implements UserDetails {
     @UpdateTimestamp
     private Instant updatedAt;
 
+    // --- Denormalized counters ---
+    // Written only by single-statement increments in UserRepository, never by saving the entity,
+    // so concurrent follows and posts never lose updates.
+
+    @Column(name = "followers_count", nullable = false, updatable = false)
+    private long followersCount = 0;
+
+    @Column(name = "following_count", nullable = false, updatable = false)
+    private long followingCount = 0;
+
+    // Posts of any kind, comments included
+    @Column(name = "post_count", nullable = false, updatable = false)
+    private long postCount = 0;
+
     // This is the INVERSE side of the relationship
     // cascade = CascadeType.ALL: Operations (persist, merge, remove) on User will cascade to UserProfile.
     // orphanRemoval = true: If the UserProfile is removed from this relationship, it should be deleted from the database.
@@ -0,0 +1,9 @@
+package com.SSarkar.Xplore.entity.enums;
+
+public enum EmailJobStatus {
+    // Waiting to be sent, or to be retried after a failed attempt
+    PENDING,
+    SENT,
+    // Gave up after the maximum number of attempts
+    DEAD
+}
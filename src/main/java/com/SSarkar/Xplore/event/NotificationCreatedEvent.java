@@ -0,0 +1,14 @@
+package com.SSarkar.Xplore.event;
+
+import com.SSarkar.Xplore.dto.notification.NotificationResponseDTO;
+
+/**
+ * Published by {@code NotificationServiceImpl} when a notification is created, or when another action is
+ * coalesced into an existing one. Pushed to the recipient's open notification streams after commit.
+ *
+ * @param recipientId  The database ID of the recipient.
+ * @param notification The notification as the client renders it.
+ * @param unreadDelta  How much the recipient's unread badge grows: 1, or 0 when merged into a notification that was already unread.
+ */
+public record NotificationCreatedEvent(Long recipientId, NotificationResponseDTO notification, int unreadDelta) {
+}
@@ -0,0 +1,10 @@
+package com.SSarkar.Xplore.event;
+
+/**
+ * Published by {@code PostServiceImpl.createPost} once a new top-level post has been saved.
+ * Listeners that react to it after commit (e.g. the timeline fan-out) only need the post ID.
+ *
+ * @param postId The database ID of the newly created post.
+ */
+public record PostCreatedEvent(Long postId) {
+}
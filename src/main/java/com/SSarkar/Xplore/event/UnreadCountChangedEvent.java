@@ -0,0 +1,11 @@
+package com.SSarkar.Xplore.event;
+
+/**
+ * Published by {@code NotificationServiceImpl} when notifications are marked read or deleted,
+ * so the recipient's other open tabs can update their unread badge.
+ *
+ * @param recipientId The database ID of the recipient.
+ * @param delta       Change of the unread count (negative).
+ */
+public record UnreadCountChangedEvent(Long recipientId, long delta) {
+}
@@ -0,0 +1,11 @@
+package com.SSarkar.Xplore.event;
+
+/**
+ * Published by {@code UserServiceImpl} when a user changes their username, so caches keyed by
+ * the old name can drop it once the change is committed.
+ *
+ * @param userId      The database ID of the user.
+ * @param oldUsername The username before the change.
+ */
+public record UsernameChangedEvent(Long userId, String oldUsername) {
+}
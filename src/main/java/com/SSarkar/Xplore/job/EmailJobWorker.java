@@ -0,0 +1,238 @@
+package com.SSarkar.Xplore.job;
+
+import com.SSarkar.Xplore.config.AsyncConfig;
+import com.SSarkar.Xplore.entity.EmailJob;
+import com.SSarkar.Xplore.entity.enums.EmailJobStatus;
+import com.SSarkar.Xplore.repository.EmailJobRepository;
+import com.SSarkar.Xplore.service.email.EmailTransport;
+import com.google.common.collect.Lists;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the {@code email_jobs} queue: claims due jobs, groups them by type into provider requests and sends
+ * those concurrently on the email executor, so a slow provider never holds up a request thread.
+ * <p>
+ * When a request with several emails fails, its emails are sent again one by one, so one bad address or
+ * payload only fails its own job. A failed email is retried with exponential backoff; after {@code max-attempts}
+ * it is marked {@code DEAD} and kept for inspection. Sent jobs are kept for {@code sent-retention-ms} so late duplicates
+ * are still recognised by their idempotency key, then deleted.
+ * <p>
+ * A claimed job is leased for {@code lease-ms}, after which another poll may claim it again. So that a job is never
+ * sent twice, only as many jobs are claimed as the executor has room for, a request is only sent while at least
+ * half of its lease is left (the rest are left to be claimed again), and a job's outcome is only recorded while it
+ * is still held under the lease it was claimed with.
+ */
+@Component
+@Slf4j
+public class EmailJobWorker {
+
+    // After a failed request, if this many of its emails also fail on their own, the provider itself is
+    // assumed to be failing and the remaining emails are rescheduled without calling it.
+    private static final int FALLBACK_PROBES = 3;
+
+    private final EmailJobRepository emailJobRepository;
+    private final EmailTransport emailTransport;
+    private final ThreadPoolTaskExecutor emailExecutor;
+    private final MeterRegistry meterRegistry;
+    private final Counter deadJobs;
+
+    @Value("${app.email.worker.enabled}")
+    private boolean enabled;
+
+    // Jobs claimed per poll
+    @Value("${app.email.worker.claim-size}")
+    private int claimSize;
+
+    // Emails sent in one provider request
+    @Value("${app.email.worker.request-size}")
+    private int requestSize;
+
+    @Value("${app.email.worker.lease-ms}")
+    private long leaseMs;
+
+    @Value("${app.email.worker.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${app.email.worker.retry-backoff-ms}")
+    private long retryBackoffMs;
+
+    @Value("${app.email.worker.sent-retention-ms}")
+    private long sentRetentionMs;
+
+    public EmailJobWorker(EmailJobRepository emailJobRepository,
+                          EmailTransport emailTransport,
+                          @Qualifier(AsyncConfig.EMAIL_EXECUTOR) ThreadPoolTaskExecutor emailExecutor,
+                          MeterRegistry meterRegistry) {
+        this.emailJobRepository = emailJobRepository;
+        this.emailTransport = emailTransport;
+        this.emailExecutor = emailExecutor;
+        this.meterRegistry = meterRegistry;
+        this.deadJobs = Counter.builder("email.dead")
+                .description("Emails given up on after the maximum number of attempts")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.worker.poll-interval-ms}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+
+        int emailsPerRequest = Math.min(requestSize, emailTransport.maxBatchSize());
+        List<Long> claimed;
+        int limit;
+        do {
+            // Only claim what the executor can start or queue right now; the rest stays due for a later poll.
+            limit = (int) Math.min(claimSize, (long) freeExecutorSlots() * emailsPerRequest);
+            if (limit <= 0) {
+                return;
+            }
+            Instant now = Instant.now();
+            // The lease is matched exactly when recording the outcome, so keep it at the column's precision.
+            Instant leaseUntil = now.plusMillis(leaseMs).truncatedTo(ChronoUnit.MICROS);
+            claimed = emailJobRepository.claimBatch(now, leaseUntil, limit);
+            if (claimed.isEmpty()) {
+                return;
+            }
+
+            Map<String, List<EmailJob>> byType = emailJobRepository.findAllById(claimed).stream()
+                    .collect(Collectors.groupingBy(EmailJob::getType));
+            try {
+                byType.forEach((type, jobs) -> Lists.partition(jobs, emailsPerRequest)
+                        .forEach(request -> emailExecutor.execute(() -> send(type, request, leaseUntil))));
+            } catch (TaskRejectedException e) {
+                // The executor is saturated; whatever was not submitted becomes due again when its lease runs out.
+                log.warn("Email executor is full, leaving the rest of the claimed emails for later");
+                return;
+            }
+        } while (claimed.size() == limit);
+    }
+
+    /**
+     * Provider requests the email executor can take without overflowing: idle threads plus free queue slots.
+     */
+    private int freeExecutorSlots() {
+        int idleThreads = emailExecutor.getMaxPoolSize() - emailExecutor.getActiveCount();
+        int freeQueueSlots = emailExecutor.getQueueCapacity() - emailExecutor.getQueueSize();
+        return Math.max(0, idleThreads) + Math.max(0, freeQueueSlots);
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.worker.cleanup-interval-ms}")
+    public void deleteSentJobs() {
+        int deleted = emailJobRepository.deleteByStatusCreatedBefore(EmailJobStatus.SENT, Instant.now().minusMillis(sentRetentionMs));
+        if (deleted > 0) {
+            log.info("Deleted {} sent email jobs", deleted);
+        }
+    }
+
+    private void send(String type, List<EmailJob> jobs, Instant leaseUntil) {
+        if (leaseRunningOut(leaseUntil)) {
+            log.warn("Not sending {} {} emails: their lease runs out at {}, leaving them to be claimed again", jobs.size(), type, leaseUntil);
+            return;
+        }
+        try {
+            sendRequest(type, jobs);
+        } catch (MessagingException | RuntimeException e) {
+            if (jobs.size() == 1) {
+                recordFailure(jobs.get(0), leaseUntil, e);
+            } else {
+                log.warn("Failed to send {} {} emails in one request, sending them one by one: {}", jobs.size(), type, e.getMessage());
+                sendOneByOne(type, jobs, leaseUntil);
+            }
+            return;
+        }
+        markSent(jobs.stream().map(EmailJob::getId).toList(), leaseUntil);
+        log.info("Sent {} {} emails", jobs.size(), type);
+    }
+
+    private void sendOneByOne(String type, List<EmailJob> jobs, Instant leaseUntil) {
+        List<Long> sentIds = new ArrayList<>();
+        Exception lastFailure = null;
+        int attempted = 0;
+        for (int i = 0; i < jobs.size(); i++) {
+            EmailJob job = jobs.get(i);
+            if (sentIds.isEmpty() && i >= FALLBACK_PROBES) {
+                recordFailure(job, leaseUntil, lastFailure);
+                continue;
+            }
+            if (leaseRunningOut(leaseUntil)) {
+                log.warn("Lease of {} {} emails runs out at {}, leaving the remaining {} to be claimed again", jobs.size(), type, leaseUntil, jobs.size() - i);
+                break;
+            }
+            attempted++;
+            try {
+                sendRequest(type, List.of(job));
+                sentIds.add(job.getId());
+            } catch (MessagingException | RuntimeException e) {
+                lastFailure = e;
+                recordFailure(job, leaseUntil, e);
+            }
+        }
+
+        if (!sentIds.isEmpty()) {
+            markSent(sentIds, leaseUntil);
+        }
+        log.info("Sent {} of {} {} emails one by one", sentIds.size(), attempted, type);
+    }
+
+    /**
+     * Whether less than half of the lease is left, too little to be sure a provider call finishes within it.
+     */
+    private boolean leaseRunningOut(Instant leaseUntil) {
+        return Instant.now().isAfter(leaseUntil.minusMillis(leaseMs / 2));
+    }
+
+    private void markSent(List<Long> ids, Instant leaseUntil) {
+        int marked = emailJobRepository.markSent(ids, leaseUntil, Instant.now());
+        if (marked < ids.size()) {
+            log.warn("{} of {} sent emails were no longer held under their lease and may be sent again", ids.size() - marked, ids.size());
+        }
+    }
+
+    /**
+     * One provider call, timed as {@code email.send}.
+     */
+    private void sendRequest(String type, List<EmailJob> jobs) throws MessagingException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            emailTransport.send(jobs);
+            outcome = "success";
+        } finally {
+            sample.stop(meterRegistry.timer("email.send", "type", type, "outcome", outcome));
+        }
+    }
+
+    private void recordFailure(EmailJob job, Instant leaseUntil, Exception e) {
+        int attempts = job.getAttempts() + 1;
+        Instant retryAt = Instant.now().plusMillis(retryBackoffMs << Math.min(attempts - 1, 20));
+        if (emailJobRepository.recordFailure(job.getId(), leaseUntil, retryAt, e.toString(), maxAttempts) == 0) {
+            log.warn("{} email {} failed after its lease was taken over, not recording the attempt", job.getType(), job.getIdempotencyKey());
+            return;
+        }
+
+        if (attempts >= maxAttempts) {
+            deadJobs.increment();
+            log.error("Giving up on {} email {} to {} after {} attempts", job.getType(), job.getIdempotencyKey(), job.getRecipientEmail(), attempts, e);
+        } else {
+            log.warn("Failed to send {} email {} (attempt {}), retrying at {}: {}", job.getType(), job.getIdempotencyKey(), attempts, retryAt, e.getMessage());
+        }
+    }
+}
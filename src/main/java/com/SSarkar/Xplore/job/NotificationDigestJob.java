@@ -0,0 +1,45 @@
+package com.SSarkar.Xplore.job;
+
+import com.SSarkar.Xplore.service.contract.NotificationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Sends digest emails: every recipient whose oldest un-emailed notification has waited for the digest window
+ * gets one summary email of everything collected so far, instead of one email per notification.
+ * Digests are queued as email jobs, which {@link EmailJobWorker} sends several per provider request.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationDigestJob {
+
+    private final NotificationService notificationService;
+
+    @Value("${app.email.digest.enabled}")
+    private boolean enabled;
+
+    @Value("${app.email.digest.window-ms}")
+    private long windowMs;
+
+    @Value("${app.email.digest.batch-size}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${app.email.digest.poll-interval-ms}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+
+        Instant cutoff = Instant.now().minusMillis(windowMs);
+        int recipients;
+        do {
+            recipients = notificationService.sendDueDigests(cutoff, batchSize);
+        } while (recipients == batchSize);
+    }
+}
@@ -0,0 +1,76 @@
+package com.SSarkar.Xplore.job;
+
+import com.SSarkar.Xplore.repository.NotificationOutboxRepository;
+import com.SSarkar.Xplore.service.contract.NotificationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Drains the notification outbox in batches: creates the notifications, renders their messages and
+ * hands emails to the (async) email service, off the request path of the like/comment/follow that queued them.
+ * <p>
+ * Each row is delivered in its own transaction, so one bad row never holds back the rest of the batch.
+ * Failed rows are retried with exponential backoff until {@code max-attempts} is reached, after which they
+ * stay in the table with their last error for inspection.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationOutboxDispatcher {
+
+    private final NotificationOutboxRepository notificationOutboxRepository;
+    private final NotificationService notificationService;
+
+    @Value("${app.notifications.outbox.enabled}")
+    private boolean enabled;
+
+    @Value("${app.notifications.outbox.batch-size}")
+    private int batchSize;
+
+    @Value("${app.notifications.outbox.lease-ms}")
+    private long leaseMs;
+
+    @Value("${app.notifications.outbox.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${app.notifications.outbox.retry-backoff-ms}")
+    private long retryBackoffMs;
+
+    @Scheduled(fixedDelayString = "${app.notifications.outbox.poll-interval-ms}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+
+        // Keep going while batches come back full, so a burst is drained in one run.
+        List<NotificationOutboxRepository.ClaimedEntry> claimed;
+        do {
+            Instant now = Instant.now();
+            claimed = notificationOutboxRepository.claimBatch(now, now.plusMillis(leaseMs), maxAttempts, batchSize);
+            claimed.forEach(this::dispatch);
+        } while (claimed.size() == batchSize);
+    }
+
+    private void dispatch(NotificationOutboxRepository.ClaimedEntry entry) {
+        try {
+            notificationService.dispatchOutboxEntry(entry.getId());
+        } catch (RuntimeException e) {
+            int attempts = entry.getAttempts() + 1;
+            Instant retryAt = Instant.now().plusMillis(retryBackoffMs << Math.min(attempts - 1, 20));
+            notificationOutboxRepository.recordFailure(entry.getId(), retryAt, e.toString());
+
+            if (attempts >= maxAttempts) {
+                log.error("Giving up on notification outbox entry {} after {} attempts", entry.getId(), attempts, e);
+            } else {
+                log.warn("Failed to dispatch notification outbox entry {} (attempt {}), retrying at {}",
+                        entry.getId(), attempts, retryAt, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.SSarkar.Xplore.job;
+
+import com.SSarkar.Xplore.repository.PostRepository;
+import com.SSarkar.Xplore.service.counter.LikeCountAggregator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Periodically recomputes the denormalized {@code likeCount}, {@code commentCount} and {@code descendantCount}
+ * of posts from the underlying rows and repairs any that drifted (e.g. after manual data fixes, or for
+ * posts written before the counters existed).
+ * <p>
+ * Works over ID windows with one bulk statement per counter, so each transaction stays short.
+ * <p>
+ * Like counts are buffered in memory by every instance before they are written, so a stored like count may
+ * lag behind its likes simply because another instance has not flushed yet; overwriting it would then
+ * count that instance's delta twice. A like count is therefore only repaired when the same drift
+ * (number of likes minus stored count) is seen on two consecutive runs: any buffered delta has been flushed
+ * in between and would have shrunk it. New likes change both sides, so posts that keep being liked are repaired
+ * too, by adding the drift rather than overwriting the count.
+ * <p>
+ * Counters of posts that existed before the columns are filled by {@code db/post-counters.sql}, run with the DDL.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PostCounterReconciliationJob {
+
+    private final PostRepository postRepository;
+    private final LikeCountAggregator likeCountAggregator;
+
+    @Value("${app.posts.counter-reconciliation.enabled}")
+    private boolean enabled;
+
+    @Value("${app.posts.counter-reconciliation.batch-size}")
+    private int batchSize;
+
+    @Value("${app.posts.counter-reconciliation.max-tracked-drift}")
+    private int maxTrackedDrift;
+
+    // Like count drift (likes minus stored count) seen on the previous run, by post ID
+    private Map<Long, Long> previousLikeDrift = Map.of();
+
+    @Scheduled(initialDelayString = "${app.posts.counter-reconciliation.initial-delay-ms}",
+            fixedDelayString = "${app.posts.counter-reconciliation.interval-ms}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+
+        // Write out buffered like deltas first; whatever is still pending afterwards is skipped for this run.
+        likeCountAggregator.flush();
+        Set<Long> pendingLikePostIds = likeCountAggregator.pendingPostIds();
+
+        long maxId = postRepository.findMaxId();
+        Map<Long, Long> likeDrift = new HashMap<>();
+
+        int likes = 0;
+        int comments = 0;
+        int descendants = 0;
+        for (long fromId = 1; fromId <= maxId; fromId += batchSize) {
+            long toId = fromId + batchSize - 1;
+            for (PostRepository.LikeCountDrift drift : postRepository.findLikeCountDrift(fromId, toId)) {
+                Long previous = previousLikeDrift.get(drift.getId());
+                if (pendingLikePostIds.contains(drift.getId())) {
+                    // Decided on a later run; a skipped run does not reset what was seen before it.
+                    if (previous != null && likeDrift.size() < maxTrackedDrift) {
+                        likeDrift.put(drift.getId(), previous);
+                    }
+                    continue;
+                }
+                long seen = drift.getActualCount() - drift.getStoredCount();
+                if (previous != null && previous == seen) {
+                    likes += postRepository.repairLikeCount(drift.getId(), seen);
+                } else if (likeDrift.size() < maxTrackedDrift) {
+                    // Posts beyond the limit are simply picked up again by a later run.
+                    likeDrift.put(drift.getId(), seen);
+                }
+            }
+            comments += postRepository.reconcileCommentCounts(fromId, toId);
+            descendants += postRepository.reconcileDescendantCounts(fromId, toId);
+        }
+        previousLikeDrift = likeDrift;
+
+        if (likes > 0 || comments > 0 || descendants > 0) {
+            log.info("Repaired post counters: {} like counts, {} comment counts, {} descendant counts",
+                    likes, comments, descendants);
+        }
+    }
+}
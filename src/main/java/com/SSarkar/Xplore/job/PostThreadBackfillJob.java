@@ -0,0 +1,63 @@
+package com.SSarkar.Xplore.job;
+
+import com.SSarkar.Xplore.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off backfill of {@code depth}, {@code rootPostId} and {@code threadPath} for posts written before
+ * those columns were maintained on write.
+ * <p>
+ * Runs in the background once the application is ready, and returns after a single existence check
+ * when no row is missing its thread position. Otherwise rows are updated with bulk statements over
+ * ID windows, one thread level per pass, so no post ancestry is ever walked in Java.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PostThreadBackfillJob {
+
+    private final PostRepository postRepository;
+
+    @Value("${app.posts.thread-backfill.enabled}")
+    private boolean enabled;
+
+    @Value("${app.posts.thread-backfill.batch-size}")
+    private int batchSize;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        if (!enabled || !postRepository.existsByDepthIsNullOrRootPostIdIsNullOrThreadPathIsNull()) {
+            return;
+        }
+
+        long maxId = postRepository.findMaxId();
+
+        int topLevel = 0;
+        for (long fromId = 1; fromId <= maxId; fromId += batchSize) {
+            topLevel += postRepository.backfillTopLevelThreadPositions(fromId, fromId + batchSize - 1);
+        }
+
+        int comments = 0;
+        int level = 0;
+        int updatedInPass;
+        do {
+            updatedInPass = 0;
+            for (long fromId = 1; fromId <= maxId; fromId += batchSize) {
+                updatedInPass += postRepository.backfillChildThreadPositions(fromId, fromId + batchSize - 1);
+            }
+            comments += updatedInPass;
+            level++;
+        } while (updatedInPass > 0);
+
+        if (topLevel > 0 || comments > 0) {
+            log.info("Backfilled thread positions for {} posts and {} comments in {} passes", topLevel, comments, level);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.SSarkar.Xplore.job;
+
+import com.SSarkar.Xplore.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically recomputes the denormalized {@code followersCount}, {@code followingCount} and {@code postCount}
+ * of users from the follow and post rows and repairs any that drifted (e.g. after a lost race between two
+ * follow toggles, or for users created before the counters existed).
+ * <p>
+ * Works over ID windows with one bulk statement per counter, so each transaction stays short.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserCounterReconciliationJob {
+
+    private final UserRepository userRepository;
+
+    @Value("${app.users.counter-reconciliation.enabled}")
+    private boolean enabled;
+
+    @Value("${app.users.counter-reconciliation.batch-size}")
+    private int batchSize;
+
+    @Scheduled(initialDelayString = "${app.users.counter-reconciliation.initial-delay-ms}",
+            fixedDelayString = "${app.users.counter-reconciliation.interval-ms}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+
+        long maxId = userRepository.findMaxId();
+
+        int followers = 0;
+        int following = 0;
+        int posts = 0;
+        for (long fromId = 1; fromId <= maxId; fromId += batchSize) {
+            long toId = fromId + batchSize - 1;
+            followers += userRepository.reconcileFollowersCounts(fromId, toId);
+            following += userRepository.reconcileFollowingCounts(fromId, toId);
+            posts += userRepository.reconcilePostCounts(fromId, toId);
+        }
+
+        if (followers > 0 || following > 0 || posts > 0) {
+            log.info("Repaired user counters: {} follower counts, {} following counts, {} post counts",
+                    followers, following, posts);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.SSarkar.Xplore.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One summary email covering every notification a recipient collected during the digest window.
+ */
+@Data
+@AllArgsConstructor
+public class NotificationDigest {
+    // Identifies this digest in the email queue, so it is never queued twice
+    private String idempotencyKey;
+    private String recipientEmail;
+    private String recipientUsername;
+    private List<Item> items;
+
+    @Data
+    @AllArgsConstructor
+    public static class Item {
+        private String message;
+        private String url;
+    }
+}
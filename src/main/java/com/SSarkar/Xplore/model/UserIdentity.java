@@ -0,0 +1,13 @@
+package com.SSarkar.Xplore.model;
+
+import java.util.UUID;
+
+/**
+ * What identifies a user, without the rest of the {@code User} row.
+ *
+ * @param id       The database ID.
+ * @param uuid     The public UUID.
+ * @param username The current username.
+ */
+public record UserIdentity(Long id, UUID uuid, String username) {
+}
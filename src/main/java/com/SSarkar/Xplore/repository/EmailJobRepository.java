@@ -0,0 +1,104 @@
+package com.SSarkar.Xplore.repository;
+
+import com.SSarkar.Xplore.entity.EmailJob;
+import com.SSarkar.Xplore.entity.enums.EmailJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailJobRepository extends JpaRepository<EmailJob, Long> {
+
+    /**
+     * Queues an email unless one with the same idempotency key was already queued.
+     * Joins the caller's transaction, so the email is only queued if the caller's writes commit.
+     *
+     * @return 1 if the email was queued, 0 if it was a duplicate.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+    INSERT INTO email_jobs (idempotency_key, type, recipient_email, subject, html_content, status, attempts, available_at, created_at)
+    VALUES (:idempotencyKey, :type, :recipientEmail, :subject, :htmlContent, 'PENDING', 0, :now, :now)
+    ON CONFLICT (idempotency_key) DO NOTHING
+    """, nativeQuery = true)
+    int enqueue(@Param("idempotencyKey") String idempotencyKey,
+                @Param("type") String type,
+                @Param("recipientEmail") String recipientEmail,
+                @Param("subject") String subject,
+                @Param("htmlContent") String htmlContent,
+                @Param("now") Instant now);
+
+    /**
+     * Claims up to {@code limit} due jobs by pushing their {@code available_at} to {@code leaseUntil}.
+     * {@code SKIP LOCKED} lets several workers drain the queue concurrently without claiming the same jobs,
+     * and a job whose worker dies becomes due again once the lease runs out.
+     */
+    @Transactional
+    @Query(value = """
+    UPDATE email_jobs
+    SET available_at = :leaseUntil
+    WHERE id IN (
+        SELECT id FROM email_jobs
+        WHERE status = 'PENDING' AND available_at <= :now
+        ORDER BY available_at, id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+    )
+    RETURNING id
+    """, nativeQuery = true)
+    List<Long> claimBatch(@Param("now") Instant now,
+                          @Param("leaseUntil") Instant leaseUntil,
+                          @Param("limit") int limit);
+
+    /**
+     * Marks claimed jobs as sent, as long as they are still held under the lease they were claimed with.
+     * The HTML is cleared: sent jobs are only kept for their idempotency key, and it may hold secrets such as an OTP.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE EmailJob j
+    SET j.status = com.SSarkar.Xplore.entity.enums.EmailJobStatus.SENT,
+        j.sentAt = :sentAt,
+        j.attempts = j.attempts + 1,
+        j.htmlContent = ''
+    WHERE j.id IN :ids
+    AND j.status = com.SSarkar.Xplore.entity.enums.EmailJobStatus.PENDING AND j.availableAt = :leaseUntil
+    """)
+    int markSent(@Param("ids") Collection<Long> ids, @Param("leaseUntil") Instant leaseUntil, @Param("sentAt") Instant sentAt);
+
+    /**
+     * Records a failed attempt: the job is retried at {@code retryAt}, or becomes {@code DEAD}
+     * once it has used up {@code maxAttempts}. Does nothing once the lease the job was claimed with has been
+     * taken over by another claim.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE EmailJob j
+    SET j.attempts = j.attempts + 1,
+        j.availableAt = :retryAt,
+        j.lastError = :error,
+        j.status = CASE WHEN j.attempts + 1 >= :maxAttempts THEN com.SSarkar.Xplore.entity.enums.EmailJobStatus.DEAD ELSE com.SSarkar.Xplore.entity.enums.EmailJobStatus.PENDING END
+    WHERE j.id = :id
+    AND j.status = com.SSarkar.Xplore.entity.enums.EmailJobStatus.PENDING AND j.availableAt = :leaseUntil
+    """)
+    int recordFailure(@Param("id") Long id,
+                      @Param("leaseUntil") Instant leaseUntil,
+                      @Param("retryAt") Instant retryAt,
+                      @Param("error") String error,
+                      @Param("maxAttempts") int maxAttempts);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EmailJob j WHERE j.status = :status AND j.createdAt < :before")
+    int deleteByStatusCreatedBefore(@Param("status") EmailJobStatus status, @Param("before") Instant before);
+}
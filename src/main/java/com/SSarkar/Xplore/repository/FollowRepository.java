@@ -8,10 +8,9 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
-import java.util.UUID;
 
 public interface FollowRepository extends JpaRepository<Follow,Long> {
 
@@ -39,6 +38,33 @@ public interface FollowRepository extends JpaRepository<Follow,Long> {
      */
     Optional<Follow> findByFollowerAndFollowee(User follower, User followee);
 
-    @Query("SELECT f.followee.uuid FROM Follow f WHERE f.follower = :currentUser AND f.followee IN :users")
-    Set<UUID> findFollowingUuidsByCurrentUserAndUsers(@Param("currentUser") User currentUser, @Param("users") List<User> users);
+    /**
+     * One follow relationship, by the IDs of both sides.
+     */
+    interface FollowPair {
+        Long getFollowerId();
+
+        Long getFolloweeId();
+    }
+
+    /**
+     * Finds the follows in either direction between one user and a set of other users, in one query.
+     */
+    @Query("""
+    SELECT f.follower.id AS followerId, f.followee.id AS followeeId FROM Follow f
+    WHERE (f.follower.id = :userId AND f.followee.id IN :otherUserIds)
+    OR (f.followee.id = :userId AND f.follower.id IN :otherUserIds)
+    """)
+    List<FollowPair> findFollowsBetween(@Param("userId") Long userId, @Param("otherUserIds") Collection<Long> otherUserIds);
+
+    /**
+     * Finds the IDs of the users followed by {@code follower} that have more than {@code threshold} followers.
+     * Posts from these authors are not fanned out on write, so the feed pulls them in on read instead.
+     */
+    @Query("""
+    SELECT f.followee.id FROM Follow f
+    WHERE f.follower = :follower
+    AND f.followee.followersCount > :threshold
+    """)
+    List<Long> findFolloweeIdsWithMoreFollowersThan(@Param("follower") User follower, @Param("threshold") long threshold);
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.SSarkar.Xplore.repository;
 import com.SSarkar.Xplore.entity.Like;
 import com.SSarkar.Xplore.entity.Post;
 import com.SSarkar.Xplore.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,6 +11,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -18,6 +20,86 @@ import java.util.UUID;
 @Repository
 public interface LikeRepository extends JpaRepository<Like, Long> {
 
+    /**
+     * Outcome of one of the single-statement like writes below. No row at all means the post does not exist.
+     */
+    interface LikeWriteResult {
+        Long getPostId();
+
+        Long getAuthorId();
+
+        // Stored like count of the post, without this write or any buffered deltas
+        long getLikeCount();
+
+        // Whether the user likes the post after the write
+        boolean getLiked();
+
+        // +1 if a like was inserted, -1 if one was deleted, 0 if nothing changed
+        long getDelta();
+    }
+
+    // --- Single-statement like writes (PostgreSQL) ---
+    // Each resolves the post by UUID, writes the like and reports the outcome in one round trip.
+    // The (user_id, post_id) unique constraint makes concurrent double taps converge instead of failing.
+
+    @Query(value = """
+    WITH target AS (
+        SELECT id, author_id, like_count FROM posts WHERE uuid = :postUuid
+    ), inserted AS (
+        INSERT INTO post_likes (uuid, user_id, post_id, created_at)
+        SELECT :likeUuid, :userId, t.id, now() FROM target t
+        ON CONFLICT (user_id, post_id) DO NOTHING
+        RETURNING post_id
+    )
+    SELECT t.id AS "postId", t.author_id AS "authorId", t.like_count AS "likeCount",
+           TRUE AS "liked", (SELECT COUNT(*) FROM inserted) AS "delta"
+    FROM target t
+    """, nativeQuery = true)
+    Optional<LikeWriteResult> insertLike(@Param("postUuid") UUID postUuid,
+                                         @Param("userId") Long userId,
+                                         @Param("likeUuid") UUID likeUuid);
+
+    @Query(value = """
+    WITH target AS (
+        SELECT id, author_id, like_count FROM posts WHERE uuid = :postUuid
+    ), deleted AS (
+        DELETE FROM post_likes l USING target t
+        WHERE l.post_id = t.id AND l.user_id = :userId
+        RETURNING l.post_id
+    )
+    SELECT t.id AS "postId", t.author_id AS "authorId", t.like_count AS "likeCount",
+           FALSE AS "liked", -(SELECT COUNT(*) FROM deleted) AS "delta"
+    FROM target t
+    """, nativeQuery = true)
+    Optional<LikeWriteResult> deleteLike(@Param("postUuid") UUID postUuid,
+                                         @Param("userId") Long userId);
+
+    /**
+     * Deletes the like if it exists, inserts it otherwise.
+     */
+    @Query(value = """
+    WITH target AS (
+        SELECT id, author_id, like_count FROM posts WHERE uuid = :postUuid
+    ), deleted AS (
+        DELETE FROM post_likes l USING target t
+        WHERE l.post_id = t.id AND l.user_id = :userId
+        RETURNING l.post_id
+    ), inserted AS (
+        INSERT INTO post_likes (uuid, user_id, post_id, created_at)
+        SELECT :likeUuid, :userId, t.id, now() FROM target t
+        WHERE NOT EXISTS (SELECT 1 FROM deleted)
+        ON CONFLICT (user_id, post_id) DO NOTHING
+        RETURNING post_id
+    )
+    SELECT t.id AS "postId", t.author_id AS "authorId", t.like_count AS "likeCount",
+           NOT EXISTS (SELECT 1 FROM deleted) AS "liked",
+           (SELECT COUNT(*) FROM inserted) - (SELECT COUNT(*) FROM deleted) AS "delta"
+    FROM target t
+    """, nativeQuery = true)
+    Optional<LikeWriteResult> toggleLike(@Param("postUuid") UUID postUuid,
+                                         @Param("userId") Long userId,
+                                         @Param("likeUuid") UUID likeUuid);
+
     /**
      * Finds a Like entity by a specific user and post.
      * This is crucial for checking if a user has already liked a post,
@@ -39,6 +121,21 @@ public interface LikeRepository extends JpaRepository<Like, Long> {
      */
     Page<Like> findByUser(User user, Pageable pageable);
 
+    /**
+     * Keyset-paginated variant of {@link #findByUser}: the user's likes strictly after the
+     * (createdAt, id) cursor, newest first, with each liked post and its author fetched in the same query.
+     */
+    @Query("""
+    SELECT l FROM Like l JOIN FETCH l.post p JOIN FETCH p.author
+    WHERE l.user = :user
+    AND (l.createdAt < :createdAt OR (l.createdAt = :createdAt AND l.id < :id))
+    ORDER BY l.createdAt DESC, l.id DESC
+    """)
+    List<Like> findByUserBefore(@Param("user") User user,
+                                @Param("createdAt") Instant createdAt,
+                                @Param("id") Long id,
+                                Limit limit);
+
     @Query("SELECT l.post.uuid FROM Like l WHERE l.user = :user AND l.post IN :posts")
     Set<UUID> findLikedPostUuidsByUserAndPosts(@Param("user") User user, @Param("posts") List<Post> posts);
 }
\ No newline at end of file
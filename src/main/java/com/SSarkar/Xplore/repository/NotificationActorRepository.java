@@ -0,0 +1,25 @@
+package com.SSarkar.Xplore.repository;
+
+import com.SSarkar.Xplore.entity.NotificationActor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationActorRepository extends JpaRepository<NotificationActor, Long> {
+
+    /**
+     * Records that a user acted on a notification.
+     *
+     * @return 1 if the user is new to the notification, 0 if they had already acted on it.
+     */
+    @Modifying
+    @Query(value = """
+    INSERT INTO notification_actors (notification_id, actor_id)
+    VALUES (:notificationId, :actorId)
+    ON CONFLICT (notification_id, actor_id) DO NOTHING
+    """, nativeQuery = true)
+    int addActor(@Param("notificationId") Long notificationId, @Param("actorId") Long actorId);
+}
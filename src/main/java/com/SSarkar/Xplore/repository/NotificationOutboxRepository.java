@@ -0,0 +1,62 @@
+package com.SSarkar.Xplore.repository;
+
+import com.SSarkar.Xplore.entity.NotificationOutbox;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    /**
+     * An outbox row handed to a dispatcher by {@link #claimBatch}.
+     */
+    interface ClaimedEntry {
+        Long getId();
+
+        // Number of failed deliveries before this claim
+        int getAttempts();
+    }
+
+    /**
+     * Claims up to {@code limit} due rows in one statement by pushing their {@code available_at} to {@code leaseUntil}.
+     * {@code SKIP LOCKED} lets several dispatchers drain the outbox concurrently without claiming the same rows,
+     * and a row whose dispatcher dies becomes due again once the lease runs out.
+     */
+    @Transactional
+    @Query(value = """
+    UPDATE notification_outbox
+    SET available_at = :leaseUntil
+    WHERE id IN (
+        SELECT id FROM notification_outbox
+        WHERE available_at <= :now AND attempts < :maxAttempts
+        ORDER BY id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+    )
+    RETURNING id AS "id", attempts AS "attempts"
+    """, nativeQuery = true)
+    List<ClaimedEntry> claimBatch(@Param("now") Instant now,
+                                  @Param("leaseUntil") Instant leaseUntil,
+                                  @Param("maxAttempts") int maxAttempts,
+                                  @Param("limit") int limit);
+
+    @EntityGraph(attributePaths = {"sender", "sender.userProfile", "recipient"})
+    Optional<NotificationOutbox> findWithUsersById(Long id);
+
+    /**
+     * Records a failed delivery and schedules the next attempt.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.attempts = o.attempts + 1, o.availableAt = :retryAt, o.lastError = :error WHERE o.id = :id")
+    void recordFailure(@Param("id") Long id, @Param("retryAt") Instant retryAt, @Param("error") String error);
+}
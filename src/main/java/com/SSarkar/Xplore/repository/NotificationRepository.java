@@ -2,16 +2,24 @@ package com.SSarkar.Xplore.repository;
 
 import com.SSarkar.Xplore.entity.Notification;
 import com.SSarkar.Xplore.entity.User;
+import com.SSarkar.Xplore.entity.enums.NotificationType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
@@ -26,6 +34,49 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @EntityGraph(attributePaths = {"sender", "sender.userProfile"})
     Page<Notification> findByRecipientOrderByCreatedAtDesc(User recipient, Pageable pageable);
 
+    /**
+     * Finds the most recent notification of the given kind created after {@code since}, locking it so
+     * concurrent dispatchers merge into it one at a time.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Notification> findFirstByRecipientAndRelatedEntityUuidAndTypeAndCreatedAtAfterOrderByCreatedAtDesc(
+            User recipient, UUID relatedEntityUuid, NotificationType type, Instant since);
+
+    // --- Digest emails ---
+
+    /**
+     * Recipients whose oldest notification awaiting a digest email was queued at or before {@code cutoff}.
+     */
+    @Query("""
+    SELECT n.recipient.id FROM Notification n
+    WHERE n.emailPendingSince IS NOT NULL
+    GROUP BY n.recipient.id
+    HAVING MIN(n.emailPendingSince) <= :cutoff
+    """)
+    List<Long> findRecipientIdsWithDueDigest(@Param("cutoff") Instant cutoff, Limit limit);
+
+    /**
+     * Locks the pending notifications of the given recipients. Rows already locked by another
+     * instance's digest run are skipped, so no digest goes out twice.
+     */
+    @Query(value = """
+    SELECT id FROM notifications
+    WHERE recipient_id IN :recipientIds AND email_pending_since IS NOT NULL
+    FOR UPDATE SKIP LOCKED
+    """, nativeQuery = true)
+    List<Long> lockPendingEmailIds(@Param("recipientIds") Collection<Long> recipientIds);
+
+    @Query("""
+    SELECT n FROM Notification n JOIN FETCH n.recipient LEFT JOIN FETCH n.sender
+    WHERE n.id IN :ids
+    ORDER BY n.recipient.id, n.createdAt DESC
+    """)
+    List<Notification> findWithUsersByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.emailPendingSince = NULL WHERE n.id IN :ids")
+    int clearEmailPending(@Param("ids") Collection<Long> ids);
+
     /**
      * Marks a list of notifications as read for a specific user.
      * This prevents one user from marking another user's notifications as read.
@@ -42,6 +93,8 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
      */
     long countByRecipientAndIsReadFalse(User recipient);
 
+    long countByRecipientIdAndIsReadFalse(Long recipientId);
+
 
     /**
      * Deletes all notifications for a given recipient (user).
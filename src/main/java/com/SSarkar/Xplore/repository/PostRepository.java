@@ -2,19 +2,27 @@ package com.SSarkar.Xplore.repository;
 
 import com.SSarkar.Xplore.entity.Post;
 import com.SSarkar.Xplore.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -33,7 +41,7 @@ public interface PostRepository extends JpaRepository<Post, Long> {
      * JPA will generate a single query with a JOIN to fetch Posts and their Authors together.
      */
     @Override
-    @EntityGraph(attributePaths = {"author", "comments"})
+    @EntityGraph(attributePaths = {"author"})
     Page<Post> findAll(@NonNull Pageable pageable);
 
 
@@ -42,54 +50,50 @@ public interface PostRepository extends JpaRepository<Post, Long> {
      * This is how we get only top-level posts, not comments.
      * We also use the @EntityGraph here to prevent the N+1 problem for the author.
      */
-    @EntityGraph(attributePaths = {"author", "comments"})
+    @EntityGraph(attributePaths = {"author"})
     Page<Post> findAllByParentPostIsNull(Pageable pageable);
 
-    @EntityGraph(attributePaths = {"author", "comments"})
+    @EntityGraph(attributePaths = {"author"})
     @Query("SELECT p FROM Post p WHERE p.author.uuid = :uuid")
     Page<Post> getPostsByAuthor(@Param("uuid") UUID uuid, Pageable pageable);
 
-    @Query("SELECT p.uuid as postUuid, COUNT(l.id) as likeCount FROM Post p LEFT JOIN p.likes l WHERE p IN :posts GROUP BY p.uuid")
-    List<Map<String, Object>> countLikesForPosts(@Param("posts") List<Post> posts);
-
-    /**
-     * Fetches a paginated list of Post UUIDs with a custom feed sorting:
-     * <p>
-     * Priority Order:
-     * 1. Posts authored by the current user (always on top, newest first).
-     * 2. Posts from followings that were created within the last 24 hours
-     * (most recent first).
-     * 3. All remaining posts (most recent first).
-     * <p>
-     * Note: Uses a CASE expression for sorting logic and delegates the 24-hour
-     * window check to a parameter (`:yesterday`) for better portability across databases.
-     */
-    @Query("""
-    SELECT p.uuid 
-    FROM Post p 
-    WHERE p.parentPost IS NULL AND p.postType = 'TEXT_IMAGE'
-    ORDER BY 
-        CASE 
-            WHEN p.author IN (
-                SELECT f.followee FROM Follow f WHERE f.follower = :currentUser
-            )
-            AND p.createdAt >= CURRENT_TIMESTAMP - 1 DAY
-            THEN 0
-            ELSE 1
-        END,
-        p.createdAt DESC
-    """)
-    Page<UUID> findFeedPostUuidsForUser(@Param("currentUser") UserDetails currentUser, Pageable pageable);
-
 
     /**
      * Fetches the full Post entities for a given list of UUIDs.
-     * The @EntityGraph is applied here to efficiently load the author and comments.
+     * The @EntityGraph is applied here to efficiently load the author.
      */
-    @EntityGraph(attributePaths = {"author", "comments"})
+    @EntityGraph(attributePaths = {"author"})
     @Query("SELECT p FROM Post p WHERE p.uuid IN :uuids")
     List<Post> findByUuidIn(@Param("uuids") List<UUID> uuids);
 
+    /**
+     * Hydrates posts for a list of UUIDs that was already sorted by another query,
+     * returning them in exactly the order of {@code uuids}.
+     * <p>
+     * The IN query returns rows in no particular order, so they are placed back using a
+     * UUID -> position lookup. This keeps re-ordering O(n) instead of searching the UUID list per comparison.
+     * UUIDs without a matching post (e.g. deleted in between) are skipped.
+     */
+    default List<Post> findAllByUuidInOrder(List<UUID> uuids) {
+        if (uuids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<UUID, Post> postsByUuid = new HashMap<>(uuids.size() * 2);
+        for (Post post : findByUuidIn(uuids)) {
+            postsByUuid.put(post.getUuid(), post);
+        }
+
+        List<Post> ordered = new ArrayList<>(uuids.size());
+        for (UUID uuid : uuids) {
+            Post post = postsByUuid.get(uuid);
+            if (post != null) {
+                ordered.add(post);
+            }
+        }
+        return ordered;
+    }
+
     @Query("""
     SELECT p FROM Post p
     WHERE p.author IN (
@@ -98,7 +102,268 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     """)
     Page<Post> findPostsByFollowing(@Param("currentUserUuid") UUID currentUserUuid, Pageable pageable);
 
-    @EntityGraph(attributePaths = {"author", "comments"})
+    @EntityGraph(attributePaths = {"author"})
     Page<Post> findAllByPostType(Post.PostType postType, Pageable pageable);
 
-}
\ No newline at end of file
+    // --- Keyset (cursor) pagination ---
+    // Each query returns the rows strictly after the (createdAt, id) cursor in (createdAt DESC, id DESC) order.
+    // They return a List with a Limit instead of a Page, so no COUNT query is issued.
+
+    @EntityGraph(attributePaths = {"author"})
+    @Query("""
+    SELECT p FROM Post p
+    WHERE p.parentPost IS NULL AND p.postType = :postType
+    AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id))
+    ORDER BY p.createdAt DESC, p.id DESC
+    """)
+    List<Post> findTopLevelByPostTypeBefore(@Param("postType") Post.PostType postType,
+                                            @Param("createdAt") Instant createdAt,
+                                            @Param("id") Long id,
+                                            Limit limit);
+
+    @EntityGraph(attributePaths = {"author"})
+    @Query("""
+    SELECT p FROM Post p
+    WHERE p.author.uuid = :uuid
+    AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id))
+    ORDER BY p.createdAt DESC, p.id DESC
+    """)
+    List<Post> findByAuthorBefore(@Param("uuid") UUID uuid,
+                                  @Param("createdAt") Instant createdAt,
+                                  @Param("id") Long id,
+                                  Limit limit);
+
+    @EntityGraph(attributePaths = {"author"})
+    @Query("""
+    SELECT p FROM Post p
+    WHERE p.author IN (
+        SELECT f.followee FROM Follow f WHERE f.follower.uuid = :currentUserUuid
+    ) AND p.parentPost IS NULL
+    AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id))
+    ORDER BY p.createdAt DESC, p.id DESC
+    """)
+    List<Post> findPostsByFollowingBefore(@Param("currentUserUuid") UUID currentUserUuid,
+                                          @Param("createdAt") Instant createdAt,
+                                          @Param("id") Long id,
+                                          Limit limit);
+
+
+    /**
+     * Number of posts per author in a post's subtree (the post included), ordered by author ID.
+     */
+    interface AuthorPostCount {
+        Long getAuthorId();
+
+        long getPostCount();
+    }
+
+    @Query("""
+    SELECT p.author.id AS authorId, COUNT(p) AS postCount FROM Post p
+    WHERE p.threadPath LIKE CONCAT(:threadPath, '%')
+    GROUP BY p.author.id
+    ORDER BY p.author.id
+    """)
+    List<AuthorPostCount> countSubtreePostsByAuthor(@Param("threadPath") String threadPath);
+
+    /**
+     * Same as {@link #countSubtreePostsByAuthor}, but walks the subtree through parent links, so it also
+     * counts comments that have no thread path yet.
+     */
+    @Query(value = """
+    WITH RECURSIVE subtree (id, author_id) AS (
+        SELECT id, author_id FROM posts WHERE id = :postId
+        UNION ALL
+        SELECT c.id, c.author_id FROM posts c JOIN subtree s ON c.parent_post_id = s.id
+    )
+    SELECT author_id AS authorId, COUNT(*) AS postCount FROM subtree
+    GROUP BY author_id
+    ORDER BY author_id
+    """, nativeQuery = true)
+    List<AuthorPostCount> countSubtreePostsByAuthorViaParents(@Param("postId") Long postId);
+
+    boolean existsByThreadPathIsNull();
+
+    /**
+     * Keyset page of the direct replies to a post, oldest first, strictly after the (createdAt, id) cursor.
+     */
+    @EntityGraph(attributePaths = {"author"})
+    @Query("""
+    SELECT p FROM Post p
+    WHERE p.parentPost.id = :parentId
+    AND (p.createdAt > :createdAt OR (p.createdAt = :createdAt AND p.id > :id))
+    ORDER BY p.createdAt ASC, p.id ASC
+    """)
+    List<Post> findRepliesAfter(@Param("parentId") Long parentId,
+                                @Param("createdAt") Instant createdAt,
+                                @Param("id") Long id,
+                                Limit limit);
+
+    /**
+     * IDs of the first {@code limit} direct replies (oldest first) of each of the given posts, in one query:
+     * each parent reads only the start of its range in {@code idx_posts_parent_created}.
+     */
+    @Query(value = """
+    SELECT r.id FROM posts p CROSS JOIN LATERAL (
+        SELECT c.id FROM posts c
+        WHERE c.parent_post_id = p.id
+        ORDER BY c.created_at, c.id
+        LIMIT :limit
+    ) r
+    WHERE p.id IN (:parentIds)
+    """, nativeQuery = true)
+    List<Long> findFirstReplyIds(@Param("parentIds") Collection<Long> parentIds, @Param("limit") int limit);
+
+    @EntityGraph(attributePaths = {"author"})
+    @Query("SELECT p FROM Post p WHERE p.id IN :ids")
+    List<Post> findWithAuthorByIdIn(@Param("ids") Collection<Long> ids);
+
+    interface ShareCountView {
+        Long getId();
+
+        long getShareCount();
+    }
+
+    @Query("SELECT p.id AS id, p.shareCount AS shareCount FROM Post p WHERE p.uuid = :uuid")
+    Optional<ShareCountView> findShareCountByUuid(@Param("uuid") UUID uuid);
+
+    // --- Notification targets ---
+
+    /**
+     * What a notification needs to know about the post it refers to, without loading the post entity
+     * (and its eagerly fetched image URLs).
+     */
+    interface NotificationTargetView {
+        UUID getUuid();
+
+        String getContent();
+
+        // True when the post is a comment/reply rather than a top-level post
+        boolean getComment();
+    }
+
+    @Query("""
+    SELECT p.uuid AS uuid, p.content AS content,
+           CASE WHEN p.parentPost IS NULL THEN false ELSE true END AS comment
+    FROM Post p WHERE p.uuid = :uuid
+    """)
+    Optional<NotificationTargetView> findNotificationTargetByUuid(@Param("uuid") UUID uuid);
+
+    /**
+     * Returns which of the given post UUIDs belong to comments, in one query.
+     */
+    @Query("SELECT p.uuid FROM Post p WHERE p.uuid IN :uuids AND p.parentPost IS NOT NULL")
+    Set<UUID> findCommentUuidsIn(@Param("uuids") Collection<UUID> uuids);
+
+    // --- Denormalized counters ---
+    // Single-statement increments, so concurrent comments never lose updates.
+    // Like and share counts are written behind by LikeCountAggregator and ShareCountAggregator instead.
+
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = p.commentCount + :delta WHERE p.id = :postId")
+    int incrementCommentCount(@Param("postId") Long postId, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.descendantCount = p.descendantCount + :delta WHERE p.id IN :postIds")
+    int incrementDescendantCount(@Param("postIds") Collection<Long> postIds, @Param("delta") long delta);
+
+    // --- Counter reconciliation: recomputes the counters of one ID window and only touches rows that drifted ---
+
+    /**
+     * A post whose stored like count differs from its number of likes.
+     */
+    interface LikeCountDrift {
+        Long getId();
+
+        long getStoredCount();
+
+        long getActualCount();
+    }
+
+    /**
+     * Finds the posts of one ID window whose like count drifted. The stored count of a post may only lag
+     * because another instance has not flushed its buffered delta yet, so drift is not repaired right away.
+     */
+    @Query("""
+    SELECT p.id AS id, p.likeCount AS storedCount, (SELECT COUNT(l) FROM Like l WHERE l.post.id = p.id) AS actualCount
+    FROM Post p
+    WHERE p.id BETWEEN :fromId AND :toId
+    AND p.likeCount <> (SELECT COUNT(l) FROM Like l WHERE l.post.id = p.id)
+    """)
+    List<LikeCountDrift> findLikeCountDrift(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Adds a drift to a post's like count, unless the drift (number of likes minus stored count) changed since
+     * it was observed. Likes and flushed deltas that arrive meanwhile change both sides and keep the drift.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE Post p SET p.likeCount = p.likeCount + :drift
+    WHERE p.id = :id
+    AND (SELECT COUNT(l) FROM Like l WHERE l.post.id = p.id) - p.likeCount = :drift
+    """)
+    int repairLikeCount(@Param("id") Long id, @Param("drift") long drift);
+
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE Post p SET p.commentCount = (SELECT COUNT(c) FROM Post c WHERE c.parentPost.id = p.id)
+    WHERE p.id BETWEEN :fromId AND :toId
+    AND p.commentCount <> (SELECT COUNT(c) FROM Post c WHERE c.parentPost.id = p.id)
+    """)
+    int reconcileCommentCounts(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Posts without a thread path yet are skipped until the thread backfill has reached them.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE Post p SET p.descendantCount =
+        (SELECT COUNT(d) FROM Post d WHERE d.threadPath LIKE CONCAT(p.threadPath, '%') AND d.id <> p.id)
+    WHERE p.id BETWEEN :fromId AND :toId AND p.threadPath IS NOT NULL
+    AND p.descendantCount <>
+        (SELECT COUNT(d) FROM Post d WHERE d.threadPath LIKE CONCAT(p.threadPath, '%') AND d.id <> p.id)
+    """)
+    int reconcileDescendantCounts(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    // --- Thread position backfill for rows written before depth/rootPostId/threadPath were maintained on write ---
+    // Each call covers one ID window in its own transaction, so the backfill never holds long locks.
+
+    @Query("SELECT COALESCE(MAX(p.id), 0) FROM Post p")
+    long findMaxId();
+
+    /**
+     * Whether any post still lacks its thread position, so a fully backfilled table costs one query at startup.
+     */
+    boolean existsByDepthIsNullOrRootPostIdIsNullOrThreadPathIsNull();
+
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE Post p SET p.depth = 0, p.rootPostId = p.id, p.threadPath = CONCAT(CAST(p.id AS String), '/')
+    WHERE p.parentPost IS NULL AND (p.depth IS NULL OR p.rootPostId IS NULL OR p.threadPath IS NULL)
+    AND p.id BETWEEN :fromId AND :toId
+    """)
+    int backfillTopLevelThreadPositions(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Fills in the comments whose parent already has a thread position.
+     * Repeating it until it updates nothing resolves the tree one level per pass.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE Post c SET
+        c.depth = (SELECT p.depth + 1 FROM Post p WHERE p.id = c.parentPost.id),
+        c.rootPostId = (SELECT p.rootPostId FROM Post p WHERE p.id = c.parentPost.id),
+        c.threadPath = CONCAT((SELECT p.threadPath FROM Post p WHERE p.id = c.parentPost.id), CAST(c.id AS String), '/')
+    WHERE (c.depth IS NULL OR c.rootPostId IS NULL OR c.threadPath IS NULL)
+    AND c.id BETWEEN :fromId AND :toId
+    AND EXISTS (
+        SELECT 1 FROM Post p WHERE p.id = c.parentPost.id
+        AND p.depth IS NOT NULL AND p.rootPostId IS NOT NULL AND p.threadPath IS NOT NULL
+    )
+    """)
+    int backfillChildThreadPositions(@Param("fromId") long fromId, @Param("toId") long toId);
+}
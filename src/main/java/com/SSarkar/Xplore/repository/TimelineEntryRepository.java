@@ -0,0 +1,173 @@
+package com.SSarkar.Xplore.repository;
+
+import com.SSarkar.Xplore.entity.TimelineEntry;
+import com.SSarkar.Xplore.entity.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TimelineEntryRepository extends JpaRepository<TimelineEntry, Long> {
+
+    /**
+     * Adds a post to one user's timeline. Does nothing if it is already there, so a retried fan-out is harmless.
+     */
+    @Modifying
+    @Query(value = """
+    INSERT INTO timeline_entries (owner_id, post_id, created_at)
+    VALUES (:ownerId, :postId, :createdAt)
+    ON CONFLICT (owner_id, post_id) DO NOTHING
+    """, nativeQuery = true)
+    int addToTimeline(@Param("ownerId") Long ownerId,
+                      @Param("postId") Long postId,
+                      @Param("createdAt") Instant createdAt);
+
+    /**
+     * Appends a post to the timeline of every follower of its author in a single INSERT ... SELECT,
+     * so the fan-out costs one round trip regardless of how many followers the author has.
+     * Followers who already have the post (e.g. copied in by {@link #backfillFromAuthor} for a new follow)
+     * are skipped instead of failing the whole statement on the unique constraint.
+     *
+     * @return The number of timeline rows written.
+     */
+    @Modifying
+    @Query(value = """
+    INSERT INTO timeline_entries (owner_id, post_id, created_at)
+    SELECT f.follower_id, :postId, :createdAt
+    FROM follow f
+    WHERE f.followee_id = :authorId
+    ON CONFLICT (owner_id, post_id) DO NOTHING
+    """, nativeQuery = true)
+    int fanOutToFollowers(@Param("postId") Long postId,
+                          @Param("authorId") Long authorId,
+                          @Param("createdAt") Instant createdAt);
+
+    /**
+     * Copies the most recent top-level posts of a newly followed author into the follower's timeline.
+     * Posts that are already present are skipped, including ones a concurrent fan-out inserts meanwhile.
+     */
+    @Modifying
+    @Query(value = """
+    INSERT INTO timeline_entries (owner_id, post_id, created_at)
+    SELECT :followerId, p.id, p.created_at
+    FROM posts p
+    WHERE p.author_id = :authorId
+      AND p.parent_post_id IS NULL
+      AND p.post_type = 'TEXT_IMAGE'
+      AND NOT EXISTS (
+          SELECT 1 FROM timeline_entries t WHERE t.owner_id = :followerId AND t.post_id = p.id
+      )
+    ORDER BY p.created_at DESC
+    LIMIT :limit
+    ON CONFLICT (owner_id, post_id) DO NOTHING
+    """, nativeQuery = true)
+    int backfillFromAuthor(@Param("followerId") Long followerId,
+                           @Param("authorId") Long authorId,
+                           @Param("limit") int limit);
+
+    /**
+     * Removes every post of the given author from the owner's timeline (used on unfollow).
+     */
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.owner = :owner AND t.post.id IN (SELECT p.id FROM Post p WHERE p.author = :author)")
+    int deleteByOwnerAndAuthor(@Param("owner") User owner, @Param("author") User author);
+
+    /**
+     * A row of the home feed: the post and its position in {@code (createdAt DESC, id DESC)} order.
+     */
+    interface FeedRow {
+        UUID getUuid();
+
+        Instant getCreatedAt();
+
+        Long getId();
+    }
+
+    /**
+     * Keyset-paginated read of the owner's timeline, strictly after the (createdAt, post id) cursor.
+     * Reads only the owner's range of {@code idx_timeline_owner_created}.
+     */
+    @Query("""
+    SELECT p.uuid AS uuid, t.createdAt AS createdAt, p.id AS id
+    FROM TimelineEntry t JOIN t.post p
+    WHERE t.owner.id = :ownerId
+    AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND p.id < :id))
+    ORDER BY t.createdAt DESC, p.id DESC
+    """)
+    List<FeedRow> findRowsByOwnerBefore(@Param("ownerId") Long ownerId,
+                                        @Param("createdAt") Instant createdAt,
+                                        @Param("id") Long id,
+                                        Limit limit);
+
+    /**
+     * Fan-out-on-read variant of {@link #findRowsByOwnerBefore}: merges the owner's pushed timeline with the
+     * top-level posts of high-follower authors, whose posts are never fanned out.
+     * <p>
+     * Each part reads at most {@code limit} rows from an index: the owner's timeline range, and per author
+     * (LATERAL) that author's newest posts. Posts of an author still in the timeline from before they crossed
+     * the threshold are only taken from the timeline, so nothing appears twice.
+     */
+    @Query(value = """
+    SELECT m.uuid AS uuid, m.created_at AS createdAt, m.id AS id
+    FROM (
+        (SELECT p.uuid, t.created_at, t.post_id AS id
+         FROM timeline_entries t JOIN posts p ON p.id = t.post_id
+         WHERE t.owner_id = :ownerId
+           AND (t.created_at < :createdAt OR (t.created_at = :createdAt AND t.post_id < :id))
+         ORDER BY t.created_at DESC, t.post_id DESC
+         LIMIT :limit)
+        UNION ALL
+        (SELECT ap.uuid, ap.created_at, ap.id
+         FROM users a CROSS JOIN LATERAL (
+             SELECT p.uuid, p.created_at, p.id
+             FROM posts p
+             WHERE p.author_id = a.id AND p.parent_post_id IS NULL AND p.post_type = 'TEXT_IMAGE'
+               AND (p.created_at < :createdAt OR (p.created_at = :createdAt AND p.id < :id))
+               AND NOT EXISTS (SELECT 1 FROM timeline_entries t WHERE t.owner_id = :ownerId AND t.post_id = p.id)
+             ORDER BY p.created_at DESC, p.id DESC
+             LIMIT :limit
+         ) ap
+         WHERE a.id IN (:pullAuthorIds))
+    ) m
+    ORDER BY m.created_at DESC, m.id DESC
+    LIMIT :limit
+    """, nativeQuery = true)
+    List<FeedRow> findRowsByOwnerMergingAuthorsBefore(@Param("ownerId") Long ownerId,
+                                                      @Param("pullAuthorIds") Collection<Long> pullAuthorIds,
+                                                      @Param("createdAt") Instant createdAt,
+                                                      @Param("id") Long id,
+                                                      @Param("limit") int limit);
+
+    /**
+     * The rest of the home feed after the owner's timeline: every other top-level post, newest first,
+     * strictly after the cursor. Posts already in the timeline, and posts of followed high-follower authors
+     * (which are merged into the timeline on read), are left out so nothing appears twice.
+     * <p>
+     * Walks {@code idx_posts_created} from the cursor and stops after {@code limit} matches, so a page costs
+     * the same however many posts there are.
+     */
+    @Query("""
+    SELECT p.uuid AS uuid, p.createdAt AS createdAt, p.id AS id
+    FROM Post p
+    WHERE p.parentPost IS NULL AND p.postType = 'TEXT_IMAGE'
+    AND NOT EXISTS (SELECT 1 FROM TimelineEntry t WHERE t.owner.id = :ownerId AND t.post = p)
+    AND p.author.id NOT IN (
+        SELECT f.followee.id FROM Follow f WHERE f.follower.id = :ownerId AND f.followee.followersCount > :pullThreshold
+    )
+    AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id))
+    ORDER BY p.createdAt DESC, p.id DESC
+    """)
+    List<FeedRow> findDiscoveryRowsBefore(@Param("ownerId") Long ownerId,
+                                          @Param("pullThreshold") long pullThreshold,
+                                          @Param("createdAt") Instant createdAt,
+                                          @Param("id") Long id,
+                                          Limit limit);
+}
@@ -1,12 +1,15 @@
 package com.SSarkar.Xplore.repository;
 
 import com.SSarkar.Xplore.entity.User;
+import com.SSarkar.Xplore.model.UserIdentity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -23,6 +26,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // If it does not exist, it will return an empty Optional.
     Optional<User> findByUsername(String username);
 
+    @Query("SELECT new com.SSarkar.Xplore.model.UserIdentity(u.id, u.uuid, u.username) FROM User u WHERE u.username = :username")
+    Optional<UserIdentity> findIdentityByUsername(@Param("username") String username);
+
+    @Query("SELECT u.username FROM User u WHERE u.id = :id")
+    Optional<String> findUsernameById(@Param("id") Long id);
+
 
     Optional<User> findByEmail(String email);
 
@@ -63,13 +72,50 @@ public interface UserRepository extends JpaRepository<User, Long> {
     """)
     Page<User> findAllUsersExceptForCurrentUser(@Param("uuid") UUID uuid, Pageable pageable);
 
+    // --- Denormalized counters ---
+    // Single-statement increments, so concurrent follows and posts never lose updates.
+
+    @Modifying
+    @Query("UPDATE User u SET u.followersCount = u.followersCount + :delta WHERE u.id = :userId")
+    int incrementFollowersCount(@Param("userId") Long userId, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE User u SET u.followingCount = u.followingCount + :delta WHERE u.id = :userId")
+    int incrementFollowingCount(@Param("userId") Long userId, @Param("delta") long delta);
 
-    @Query("SELECT COUNT(f) FROM Follow f WHERE f.followee = :user")
-    int countFollowers(@Param("user") User user);
+    @Modifying
+    @Query("UPDATE User u SET u.postCount = u.postCount + :delta WHERE u.id = :userId")
+    int incrementPostCount(@Param("userId") Long userId, @Param("delta") long delta);
 
-    @Query("SELECT COUNT(f) FROM Follow f WHERE f.follower = :user")
-    int countFollowing(@Param("user") User user);
+    // --- Counter reconciliation: recomputes the counters of one ID window and only touches rows that drifted ---
 
-    @Query("SELECT COUNT(p) FROM Post p WHERE p.author = :user")
-    int countPosts(@Param("user") User user);
+    @Query("SELECT COALESCE(MAX(u.id), 0) FROM User u")
+    long findMaxId();
+
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE User u SET u.followersCount = (SELECT COUNT(f) FROM Follow f WHERE f.followee.id = u.id)
+    WHERE u.id BETWEEN :fromId AND :toId
+    AND u.followersCount <> (SELECT COUNT(f) FROM Follow f WHERE f.followee.id = u.id)
+    """)
+    int reconcileFollowersCounts(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE User u SET u.followingCount = (SELECT COUNT(f) FROM Follow f WHERE f.follower.id = u.id)
+    WHERE u.id BETWEEN :fromId AND :toId
+    AND u.followingCount <> (SELECT COUNT(f) FROM Follow f WHERE f.follower.id = u.id)
+    """)
+    int reconcileFollowingCounts(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE User u SET u.postCount = (SELECT COUNT(p) FROM Post p WHERE p.author.id = u.id)
+    WHERE u.id BETWEEN :fromId AND :toId
+    AND u.postCount <> (SELECT COUNT(p) FROM Post p WHERE p.author.id = u.id)
+    """)
+    int reconcilePostCounts(@Param("fromId") long fromId, @Param("toId") long toId);
 }
\ No newline at end of file
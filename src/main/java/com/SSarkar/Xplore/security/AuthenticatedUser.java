@@ -0,0 +1,45 @@
+package com.SSarkar.Xplore.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Principal of a request authenticated by a JWT, built from the token's claims alone.
+ * <p>
+ * It carries only what identifies the user, so authenticating a request needs no {@code User} row;
+ * services load the entity (or take a reference to it by {@link #getId()}) only when they need it.
+ */
+@Getter
+public class AuthenticatedUser implements UserDetails {
+
+    private final Long id;
+    private final UUID uuid;
+    private final String username;
+
+    public AuthenticatedUser(Long id, UUID uuid, String username) {
+        this.id = id;
+        this.uuid = uuid;
+        this.username = username;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of();
+    }
+
+    // Never needed after the token has been verified
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser[id=" + id + ", username=" + username + "]";
+    }
+}
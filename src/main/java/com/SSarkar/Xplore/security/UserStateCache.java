@@ -0,0 +1,57 @@
+package com.SSarkar.Xplore.security;
+
+import com.SSarkar.Xplore.event.UsernameChangedEvent;
+import com.SSarkar.Xplore.repository.UserRepository;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived cache of each user's current username, used to check that a JWT principal still refers to an
+ * existing user under the same name.
+ * <p>
+ * A token stops working once its user is deleted or renamed (the same as when every request reloaded the user),
+ * at the latest {@code ttl-ms} later on other instances; renames on this instance take effect on commit.
+ */
+@Component
+public class UserStateCache {
+
+    private final UserRepository userRepository;
+    // Empty when the user no longer exists
+    private final Cache<Long, Optional<String>> usernames;
+
+    public UserStateCache(UserRepository userRepository,
+                          @Value("${app.security.user-state-cache.max-size}") long maxSize,
+                          @Value("${app.security.user-state-cache.ttl-ms}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.usernames = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Returns whether the principal's user still exists and still has the username its token was issued for.
+     */
+    public boolean isCurrent(AuthenticatedUser principal) {
+        try {
+            Optional<String> username = usernames.get(principal.getId(), () -> userRepository.findUsernameById(principal.getId()));
+            return username.isPresent() && Objects.equals(username.get(), principal.getUsername());
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to load state of user " + principal.getId(), e.getCause());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUsernameChanged(UsernameChangedEvent event) {
+        usernames.invalidate(event.userId());
+    }
+}
@@ -1,7 +1,10 @@
 package com.SSarkar.Xplore.security.jwt;
 
 
+import com.SSarkar.Xplore.security.AuthenticatedUser;
+import com.SSarkar.Xplore.security.UserStateCache;
 import com.SSarkar.Xplore.service.implementation.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,6 +28,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
     private final UserDetailsServiceImpl userDetailsService;
+    private final UserStateCache userStateCache;
 
     @Override
     protected void doFilterInternal(
@@ -38,34 +42,38 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             // 1. Get JWT from the request header
             final String jwt = jwtUtils.getJwtFromHeader(request);
 
-            if (jwt == null || !jwtUtils.validateToken(jwt)) {
+            // 2. Verify the token once and read the username from its claims
+            final Claims claims = jwt == null ? null : jwtUtils.parseClaims(jwt);
+
+            if (claims == null) {
                 // If no token or invalid token, pass the request to the next filter
                 filterChain.doFilter(request, response);
                 return;
             }
 
-            // 2. Extract username and validate token
-            final String username = jwtUtils.extractUsernameFromJwt(jwt);
+            final String username = claims.getSubject();
 
             // Check if username is valid & if the user is not already authenticated
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = resolvePrincipal(claims, username);
+                if (userDetails == null) {
+                    filterChain.doFilter(request, response);
+                    return;
+                }
 
-                // 3. If token is valid, update the Security Context
-                if (jwtUtils.validateToken(jwt)) { // We simplified validateToken in previous steps
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null, // Credentials are null for JWT auth
-                            userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(
-                            new WebAuthenticationDetailsSource().buildDetails(request)
-                    );
-                    // Set the authentication in the security context
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                // 3. The token was verified above, so update the Security Context
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null, // Credentials are null for JWT auth
+                        userDetails.getAuthorities()
+                );
+                authToken.setDetails(
+                        new WebAuthenticationDetailsSource().buildDetails(request)
+                );
+                // Set the authentication in the security context
+                SecurityContextHolder.getContext().setAuthentication(authToken);
 
-                    log.debug("Roles of the user : {}",userDetails.getAuthorities());
-                }
+                log.debug("Roles of the user : {}",userDetails.getAuthorities());
             }
         } catch (RuntimeException e) {
             // By catching the exception here, we prevent the app from crashing.
@@ -76,4 +84,21 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         // 4. Continue the filter chain
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Builds the principal from the token's claims, without loading the user, or returns {@code null}
+     * if the user has since been deleted or renamed.
+     */
+    private UserDetails resolvePrincipal(Claims claims, String username) {
+        AuthenticatedUser principal = jwtUtils.toPrincipal(claims);
+        if (principal == null) {
+            // Token issued before the claims carried the user ID; these expire on their own.
+            return this.userDetailsService.loadUserByUsername(username);
+        }
+        if (!userStateCache.isCurrent(principal)) {
+            log.debug("Rejecting token of user {}: the user was deleted or renamed", principal.getId());
+            return null;
+        }
+        return principal;
+    }
 }
\ No newline at end of file
@@ -1,6 +1,11 @@
 package com.SSarkar.Xplore.security.jwt;
 
+import com.SSarkar.Xplore.entity.User;
+import com.SSarkar.Xplore.security.AuthenticatedUser;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
@@ -15,8 +20,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import javax.crypto.SecretKey;
-import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 
 @Component
@@ -25,11 +30,22 @@ public class JwtUtils {
     // 1. Initialize a logger for this class
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
-    @Value("${app.jwt-secret}")
-    private String jwtSecret;
+    // Claims that identify the user next to the username (subject)
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_USER_UUID = "uuid";
 
-    @Value("${app.jwt-expiration-milliseconds}")
-    private long jwtExpirationInMs;
+    private final long jwtExpirationInMs;
+
+    // The key and parser are immutable and thread-safe, so they are built once instead of per token.
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+
+    public JwtUtils(@Value("${app.jwt-secret}") String jwtSecret,
+                    @Value("${app.jwt-expiration-milliseconds}") long jwtExpirationInMs) {
+        this.jwtExpirationInMs = jwtExpirationInMs;
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.jwtParser = Jwts.parser().verifyWith(signingKey).build();
+    }
 
     /**
      * Extracts the JWT from the Authorization header.
@@ -47,7 +63,8 @@ public class JwtUtils {
     }
 
     /**
-     * Generates a JWT for a given username.
+     * Generates a JWT for a given username. Tokens for a {@link User} also carry the user's ID and UUID,
+     * which lets requests be authenticated without loading the user.
      */
     public String generateTokenFromUsername(UserDetails userDetails) {
         String username = userDetails.getUsername();
@@ -55,46 +72,41 @@ public class JwtUtils {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
-        String token = Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .subject(username)
                 .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
+                .expiration(expiryDate);
+        if (userDetails instanceof User user) {
+            builder.claim(CLAIM_USER_ID, user.getId())
+                    .claim(CLAIM_USER_UUID, user.getUuid().toString());
+        }
+        String token = builder.signWith(signingKey).compact();
 
         logger.info("Successfully generated JWT for user: {}", username);
         return token;
     }
 
     /**
-     * Extracts the username (subject) from the JWT.
+     * Builds the request principal from verified claims, or returns {@code null} for tokens issued
+     * before the user ID and UUID were added to them.
      */
-    public String extractUsernameFromJwt(String token) {
-        logger.debug("Attempting to extract username from token.");
-        return Jwts.parser()
-                .verifyWith((SecretKey) getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
-    }
-
-    /**
-     * Generates the signing key from the base64 encoded secret.
-     */
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(this.jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public AuthenticatedUser toPrincipal(Claims claims) {
+        Long id = claims.get(CLAIM_USER_ID, Long.class);
+        String uuid = claims.get(CLAIM_USER_UUID, String.class);
+        if (id == null || uuid == null || claims.getSubject() == null) {
+            return null;
+        }
+        return new AuthenticatedUser(id, UUID.fromString(uuid), claims.getSubject());
     }
 
     /**
-     * Validates the JWT. Checks signature, expiration, and format.
+     * Verifies the JWT once and returns its claims, or {@code null} if the signature, expiration or format is invalid.
      */
-    public boolean validateToken(String token) {
+    public Claims parseClaims(String token) {
         try {
-            Jwts.parser().verifyWith((SecretKey) getSigningKey()).build().parseSignedClaims(token);
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
             logger.debug("Token validation successful.");
-            return true;
+            return claims;
         } catch (SignatureException e) {
             logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -106,7 +118,7 @@ public class JwtUtils {
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        return null;
     }
 
 }
\ No newline at end of file
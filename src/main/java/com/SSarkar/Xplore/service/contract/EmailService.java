@@ -1,8 +1,14 @@
 package com.SSarkar.Xplore.service.contract;
 
+import com.SSarkar.Xplore.model.NotificationDigest;
 import jakarta.mail.MessagingException;
 
+import java.util.List;
+
+// Every email is rendered and queued in the email_jobs table; EmailJobWorker delivers it, with retries.
 public interface EmailService {
     void sendOtpEmail(String to, String otp) throws MessagingException;
-    void sendNotificationEmail(String to, String subject, String message, String actorName, String actorProfilePicUrl, String postContent, String postUrl ) throws MessagingException;
+    // Emails queued twice with the same idempotency key are only sent once.
+    void sendNotificationEmail(String idempotencyKey, String to, String subject, String message, String actorName, String actorProfilePicUrl, String postContent, String postUrl );
+    void sendNotificationDigests(List<NotificationDigest> digests);
 }
\ No newline at end of file
@@ -6,18 +6,39 @@ import com.SSarkar.Xplore.entity.User;
 import com.SSarkar.Xplore.entity.enums.NotificationType;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Instant;
 import java.util.UUID;
 
 public interface NotificationService {
 
     void createNotification(User sender, User recipient, NotificationType type, UUID relatedEntityUuid,String comment);
 
+    /**
+     * Turns one pending outbox row into a notification (and email, if the recipient wants one) and removes the row.
+     * Called by the outbox dispatcher, in its own transaction per row.
+     */
+    void dispatchOutboxEntry(Long outboxEntryId);
+
+    /**
+     * Queues one digest email for each of up to {@code maxRecipients} recipients whose oldest pending
+     * notification was queued at or before {@code cutoff}, and clears their pending notifications.
+     *
+     * @return The number of recipients picked up; fewer than {@code maxRecipients} means none are left.
+     */
+    int sendDueDigests(Instant cutoff, int maxRecipients);
+
     void deleteNotifications(UserDetails user);
 
     PagedResponseDTO<NotificationResponseDTO> getNotificationsForUser(UserDetails currentUserDetails, Pageable pageable);
 
     long getUnreadNotificationCount(UserDetails currentUserDetails);
 
+    /**
+     * Opens a Server-Sent Events stream of new notifications and unread badge changes for the current user.
+     */
+    SseEmitter openStream(UserDetails currentUserDetails);
+
 //    void unsubscribeUser(String token);
 }
\ No newline at end of file
@@ -28,9 +28,11 @@ public interface PostService {
 
     PagedResponseDTO<PostResponseDTO> getPostsByUser(UUID userUuid, Pageable pageable, UserDetails currentUser);
 
-    String likePost(UUID postUuid, UserDetails currentUser);
+    LikeResponseDTO toggleLike(UUID postUuid, UserDetails currentUser);
 
-    void unlikePost(UUID postUuid, UserDetails currentUser);
+    LikeResponseDTO likePost(UUID postUuid, UserDetails currentUser);
+
+    LikeResponseDTO unlikePost(UUID postUuid, UserDetails currentUser);
 
     PagedResponseDTO<PostResponseDTO> getLikedPostsByUser(UUID userUuid, Pageable pageable);
 
@@ -38,4 +40,18 @@ public interface PostService {
 
     PagedResponseDTO<PostResponseDTO> getAllShorts(Pageable pageable, UserDetails currentUser);
 
+    // --- Cursor (keyset) pagination variants: no COUNT query, constant cost per page ---
+
+    CursorPagedResponseDTO<PostResponseDTO> getFeedPosts(String cursor, int size, UserDetails currentUserDetails);
+
+    CursorPagedResponseDTO<PostResponseDTO> getAllFollowingPost(String cursor, int size, UserDetails currentUserDetails);
+
+    CursorPagedResponseDTO<PostResponseDTO> getPostsByUser(UUID userUuid, String cursor, int size, UserDetails currentUser);
+
+    CursorPagedResponseDTO<PostResponseDTO> getLikedPostsByUser(UUID userUuid, String cursor, int size);
+
+    CursorPagedResponseDTO<PostResponseDTO> getAllShorts(String cursor, int size, UserDetails currentUser);
+
+    CursorPagedResponseDTO<PostResponseDTO> getComments(UUID postUuid, String cursor, int size, UserDetails currentUser);
+
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.SSarkar.Xplore.service.contract;
+
+import com.SSarkar.Xplore.dto.post.PostCursor;
+import com.SSarkar.Xplore.entity.Post;
+import com.SSarkar.Xplore.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+public interface TimelineService {
+
+    void fanOutPost(Long postId);
+
+    void onFollow(User follower, User followee);
+
+    void onUnfollow(User follower, User followee);
+
+    /**
+     * The owner's home feed: their timeline (own and followed posts, newest first),
+     * followed by every other top-level post (newest first) for discovery.
+     * <p>
+     * Returns a slice: counting the whole feed would cost a scan of every post on each page.
+     */
+    Slice<Post> getFeedPosts(User owner, Pageable pageable);
+
+    /**
+     * A row of the keyset-paginated home feed, with the cursor that points just past it.
+     */
+    record FeedPost(Post post, PostCursor cursor) {
+    }
+
+    /**
+     * Keyset-paginated variant of {@link #getFeedPosts(User, Pageable)}, in the same order.
+     * The cursor's segment tells whether it points into the timeline (0) or the discovery posts (1).
+     */
+    List<FeedPost> getFeedPosts(User owner, PostCursor cursor, int limit);
+}
@@ -0,0 +1,23 @@
+package com.SSarkar.Xplore.service.counter;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Write-behind {@code posts.like_count}, fed by likes and unlikes.
+ */
+@Component
+public class LikeCountAggregator extends PostCounterAggregator {
+
+    public LikeCountAggregator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        super(jdbcTemplate, transactionManager, "like_count");
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.posts.like-counter.flush-interval-ms}")
+    public void flush() {
+        super.flush();
+    }
+}
@@ -0,0 +1,80 @@
+package com.SSarkar.Xplore.service.counter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory per-key deltas that have not been written to the database yet.
+ * <p>
+ * Increments go to a {@link LongAdder} per key, so concurrent writers on the same hot key do not contend on a lock.
+ * Deltas move through three generations: {@code current} receives increments, {@code retired} is the previous
+ * {@code current}, and {@code flushing} is what is being written right now. A generation is only drained one full
+ * flush cycle after it stopped receiving increments, so a writer that picked up the old map just before a rotation
+ * still lands its delta before that map is read.
+ */
+public class PendingCounter {
+
+    private volatile Map<Long, LongAdder> current = new ConcurrentHashMap<>();
+    private volatile Map<Long, LongAdder> retired = new ConcurrentHashMap<>();
+    private volatile Map<Long, LongAdder> flushing = Collections.emptyMap();
+
+    public void add(Long key, long delta) {
+        current.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * Delta not yet visible in the database for {@code key}, across all generations.
+     */
+    public long pending(Long key) {
+        return sum(current.get(key)) + sum(retired.get(key)) + sum(flushing.get(key));
+    }
+
+    public Set<Long> pendingKeys() {
+        Set<Long> keys = new HashSet<>(current.keySet());
+        keys.addAll(retired.keySet());
+        keys.addAll(flushing.keySet());
+        return keys;
+    }
+
+    /**
+     * Rotates the generations and returns the non-zero deltas to write.
+     * Must be followed by {@link #endFlush()} once they are committed, or {@link #abortFlush()} if writing failed.
+     */
+    public synchronized Map<Long, Long> beginFlush() {
+        Map<Long, LongAdder> toFlush = retired;
+        retired = current;
+        current = new ConcurrentHashMap<>();
+        flushing = toFlush;
+
+        Map<Long, Long> deltas = new HashMap<>(toFlush.size() * 2);
+        toFlush.forEach((key, adder) -> {
+            long delta = adder.sum();
+            if (delta != 0) {
+                deltas.put(key, delta);
+            }
+        });
+        return deltas;
+    }
+
+    public synchronized void endFlush() {
+        flushing = Collections.emptyMap();
+    }
+
+    /**
+     * Puts the deltas of a failed flush back, so they are retried on the next cycle.
+     */
+    public synchronized void abortFlush() {
+        Map<Long, LongAdder> failed = flushing;
+        failed.forEach((key, adder) -> add(key, adder.sum()));
+        flushing = Collections.emptyMap();
+    }
+
+    private static long sum(LongAdder adder) {
+        return adder != null ? adder.sum() : 0;
+    }
+}
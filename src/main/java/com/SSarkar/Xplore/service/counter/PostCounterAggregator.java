@@ -0,0 +1,101 @@
+package com.SSarkar.Xplore.service.counter;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Write-behind aggregation of one denormalized counter column of {@code posts}.
+ * <p>
+ * Changes only record a delta in memory; the deltas are written periodically as one batched
+ * {@code UPDATE ... SET counter = counter + ?}, so a burst of activity on a popular post costs one row update
+ * per flush instead of one contended row lock per event. Readers add {@link #pendingDelta(Long)} to the stored value.
+ * Subclasses supply the column and schedule {@link #flush()}.
+ */
+@Slf4j
+public abstract class PostCounterAggregator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String column;
+    private final String flushSql;
+
+    private final PendingCounter pending = new PendingCounter();
+
+    protected PostCounterAggregator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, String column) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.column = column;
+        this.flushSql = "UPDATE posts SET " + column + " = " + column + " + ? WHERE id = ?";
+    }
+
+    /**
+     * Records a counter change. Inside a transaction the delta is only recorded once it commits,
+     * so a rolled back change never reaches the counter.
+     */
+    public void increment(Long postId, long delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.add(postId, delta);
+                }
+            });
+        } else {
+            pending.add(postId, delta);
+        }
+    }
+
+    public long pendingDelta(Long postId) {
+        return pending.pending(postId);
+    }
+
+    /**
+     * Posts whose stored value does not include every change yet; counter reconciliation must leave them alone.
+     */
+    public Set<Long> pendingPostIds() {
+        return pending.pendingKeys();
+    }
+
+    public void flush() {
+        Map<Long, Long> deltas = pending.beginFlush();
+        if (deltas.isEmpty()) {
+            pending.endFlush();
+            return;
+        }
+
+        // Rows are updated in ID order so concurrent flushes from several instances cannot deadlock.
+        List<Object[]> batchArgs = new ArrayList<>(deltas.size());
+        deltas.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> batchArgs.add(new Object[]{entry.getValue(), entry.getKey()}));
+
+        // One transaction for the whole batch: if it fails, none of the deltas were applied and all of them can be retried.
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(flushSql, batchArgs));
+            pending.endFlush();
+            log.debug("Flushed {} deltas for {} posts", column, deltas.size());
+        } catch (RuntimeException e) {
+            pending.abortFlush();
+            log.error("Failed to flush {} deltas for {} posts, will retry", column, deltas.size(), e);
+        }
+    }
+
+    /**
+     * Writes out every generation on shutdown; no more changes are being recorded at this point.
+     */
+    @PreDestroy
+    public void flushAll() {
+        flush();
+        flush();
+    }
+}
@@ -0,0 +1,23 @@
+package com.SSarkar.Xplore.service.counter;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Write-behind {@code posts.share_count}, fed by share events.
+ */
+@Component
+public class ShareCountAggregator extends PostCounterAggregator {
+
+    public ShareCountAggregator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        super(jdbcTemplate, transactionManager, "share_count");
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.posts.share-counter.flush-interval-ms}")
+    public void flush() {
+        super.flush();
+    }
+}
@@ -0,0 +1,75 @@
+package com.SSarkar.Xplore.service.email;
+
+import brevoApi.TransactionalEmailsApi;
+import brevoModel.SendSmtpEmail;
+import brevoModel.SendSmtpEmailMessageVersions;
+import brevoModel.SendSmtpEmailSender;
+import brevoModel.SendSmtpEmailTo;
+import brevoModel.SendSmtpEmailTo1;
+import com.SSarkar.Xplore.entity.EmailJob;
+import jakarta.mail.MessagingException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sends through Brevo's transactional email API. Several emails go out as message versions of one request.
+ */
+@Component
+@ConditionalOnProperty(name = "app.email.transport", havingValue = "brevo", matchIfMissing = true)
+@RequiredArgsConstructor
+public class BrevoEmailTransport implements EmailTransport {
+
+    // Brevo accepts at most this many message versions in one send request.
+    private static final int MAX_MESSAGE_VERSIONS = 1000;
+
+    private final TransactionalEmailsApi transactionalEmailsApi;
+
+    @Value("${brevo.sender.email}")
+    private String fromEmail;
+
+    @Value("${brevo.sender.name}")
+    private String fromName;
+
+    @Override
+    public void send(List<EmailJob> emails) throws MessagingException {
+        SendSmtpEmailSender sender = new SendSmtpEmailSender()
+                .email(fromEmail)
+                .name(fromName);
+
+        SendSmtpEmail email = new SendSmtpEmail()
+                .sender(sender)
+                .subject(emails.get(0).getSubject())
+                .htmlContent(emails.get(0).getHtmlContent());
+
+        if (emails.size() == 1) {
+            email.to(Collections.singletonList(new SendSmtpEmailTo().email(emails.get(0).getRecipientEmail())));
+        } else {
+            // The top-level subject and content are required by the API; every version overrides them.
+            List<SendSmtpEmailMessageVersions> versions = new ArrayList<>(emails.size());
+            for (EmailJob job : emails) {
+                versions.add(new SendSmtpEmailMessageVersions()
+                        .to(Collections.singletonList(new SendSmtpEmailTo1().email(job.getRecipientEmail())))
+                        .subject(job.getSubject())
+                        .htmlContent(job.getHtmlContent()));
+            }
+            email.messageVersions(versions);
+        }
+
+        try {
+            transactionalEmailsApi.sendTransacEmail(email);
+        } catch (Exception e) {
+            throw new MessagingException("Failed to send " + emails.size() + " emails via Brevo API: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return MAX_MESSAGE_VERSIONS;
+    }
+}
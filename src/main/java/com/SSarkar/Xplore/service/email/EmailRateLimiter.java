@@ -0,0 +1,146 @@
+package com.SSarkar.Xplore.service.email;
+
+import com.SSarkar.Xplore.entity.enums.NotificationType;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether a notification email may be sent, so repeated actions (e.g. liking and unliking a post
+ * over and over) cannot flood a recipient's inbox or use up the provider quota.
+ * <p>
+ * Two checks, both in bounded in-memory caches that expire on their own:
+ * <ul>
+ *     <li>the same sender, type and target is emailed to a recipient at most once per {@code dedupe.window-ms};</li>
+ *     <li>each recipient has a token bucket of {@code burst} emails, refilled by one every {@code refill-interval-ms}.</li>
+ * </ul>
+ * Limits are per application instance. The in-app notification is never affected, only its email.
+ */
+@Component
+@Slf4j
+public class EmailRateLimiter {
+
+    private record DedupeKey(Long recipientId, Long senderId, NotificationType type, UUID relatedEntityUuid) {
+    }
+
+    private final boolean enabled;
+    private final long refillIntervalNanos;
+    // How far ahead of now a bucket's schedule may run, i.e. the burst a full bucket allows
+    private final long burstNanos;
+    private final Cache<Long, AtomicLong> buckets;
+    private final ConcurrentMap<DedupeKey, Boolean> recentlySent;
+    private final Counter duplicates;
+    private final Counter rateLimited;
+
+    public EmailRateLimiter(@Value("${app.email.rate-limit.enabled}") boolean enabled,
+                            @Value("${app.email.rate-limit.burst}") int burst,
+                            @Value("${app.email.rate-limit.refill-interval-ms}") long refillIntervalMs,
+                            @Value("${app.email.rate-limit.dedupe-window-ms}") long dedupeWindowMs,
+                            @Value("${app.email.rate-limit.max-size}") long maxSize,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.refillIntervalNanos = TimeUnit.MILLISECONDS.toNanos(refillIntervalMs);
+        this.burstNanos = burst * refillIntervalNanos;
+        // An idle bucket is full again after burst * refill interval, so it can be dropped then.
+        this.buckets = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(burstNanos, TimeUnit.NANOSECONDS)
+                .build();
+        this.recentlySent = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(dedupeWindowMs, TimeUnit.MILLISECONDS)
+                .<DedupeKey, Boolean>build()
+                .asMap();
+        this.duplicates = Counter.builder("email.suppressed").tag("reason", "duplicate")
+                .description("Notification emails not sent because of deduplication or rate limiting")
+                .register(meterRegistry);
+        this.rateLimited = Counter.builder("email.suppressed").tag("reason", "rate_limited")
+                .description("Notification emails not sent because of deduplication or rate limiting")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns whether the notification email may be sent, and if so counts it against the recipient's limits.
+     * <p>
+     * The dedupe key is only recorded once a token was taken, so an email suppressed by the rate limit does not
+     * also block the next attempt. Inside a transaction the key is released again if it rolls back, since the
+     * email is then never queued.
+     */
+    public boolean tryAcquire(Long recipientId, Long senderId, NotificationType type, UUID relatedEntityUuid) {
+        if (!enabled) {
+            return true;
+        }
+
+        DedupeKey key = new DedupeKey(recipientId, senderId, type, relatedEntityUuid);
+        if (recentlySent.containsKey(key)) {
+            suppressDuplicate(key);
+            return false;
+        }
+
+        if (!takeToken(recipientId)) {
+            rateLimited.increment();
+            log.info("Suppressing {} email to user {}: email rate limit reached", type, recipientId);
+            return false;
+        }
+
+        // A concurrent send of the same email may have recorded the key since the check above.
+        if (recentlySent.putIfAbsent(key, Boolean.TRUE) != null) {
+            suppressDuplicate(key);
+            return false;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        recentlySent.remove(key, Boolean.TRUE);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    private void suppressDuplicate(DedupeKey key) {
+        duplicates.increment();
+        log.debug("Suppressing duplicate {} email to user {} from user {}", key.type(), key.recipientId(), key.senderId());
+    }
+
+    /**
+     * Token bucket kept as a single timestamp (GCRA): the bucket's schedule runs ahead of now by one refill
+     * interval per token taken and catches up with time, and a token is only available while it is less than
+     * a full burst ahead. Taking a token is one compare-and-set, so concurrent senders never block each other.
+     */
+    private boolean takeToken(Long recipientId) {
+        AtomicLong schedule;
+        try {
+            schedule = buckets.get(recipientId, () -> new AtomicLong(System.nanoTime()));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to create email rate limit for user " + recipientId, e.getCause());
+        }
+
+        while (true) {
+            long now = System.nanoTime();
+            long current = schedule.get();
+            long next = Math.max(current, now) + refillIntervalNanos;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (schedule.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+}
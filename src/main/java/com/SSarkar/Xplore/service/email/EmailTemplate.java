@@ -0,0 +1,84 @@
+package com.SSarkar.Xplore.service.email;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An HTML email template parsed once into literal text and {@code {{name}}} placeholders.
+ * <p>
+ * Rendering only concatenates: the output size is known up front, so the builder is allocated once at
+ * the exact length, and values are inserted verbatim (callers escape them where needed).
+ */
+public final class EmailTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String name;
+    // literals[i] comes before variables[i]; the last literal follows the last variable
+    private final String[] literals;
+    private final String[] variables;
+    private final int literalLength;
+
+    private EmailTemplate(String name, String[] literals, String[] variables) {
+        this.name = name;
+        this.literals = literals;
+        this.variables = variables;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static EmailTemplate parse(String name, String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+
+        int position = 0;
+        int open;
+        while ((open = source.indexOf(OPEN, position)) >= 0) {
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in email template '" + name + "' at offset " + open);
+            }
+            String variable = source.substring(open + OPEN.length(), close).trim();
+            if (variable.isEmpty()) {
+                throw new IllegalArgumentException("Empty placeholder in email template '" + name + "' at offset " + open);
+            }
+            literals.add(source.substring(position, open));
+            variables.add(variable);
+            position = close + CLOSE.length();
+        }
+        literals.add(source.substring(position));
+
+        return new EmailTemplate(name, literals.toArray(String[]::new), variables.toArray(String[]::new));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Renders the template. Every placeholder must have a value; extra values are ignored.
+     */
+    public String render(Map<String, String> values) {
+        String[] resolved = new String[variables.length];
+        int length = literalLength;
+        for (int i = 0; i < variables.length; i++) {
+            String value = values.get(variables[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("No value for '" + variables[i] + "' in email template '" + name + "'");
+            }
+            resolved[i] = value;
+            length += value.length();
+        }
+
+        StringBuilder out = new StringBuilder(length);
+        for (int i = 0; i < resolved.length; i++) {
+            out.append(literals[i]).append(resolved[i]);
+        }
+        return out.append(literals[literals.length - 1]).toString();
+    }
+}
@@ -0,0 +1,23 @@
+package com.SSarkar.Xplore.service.email;
+
+import com.SSarkar.Xplore.entity.EmailJob;
+import jakarta.mail.MessagingException;
+
+import java.util.List;
+
+/**
+ * Hands rendered emails to an email provider. Selected with {@code app.email.transport}.
+ */
+public interface EmailTransport {
+
+    /**
+     * Sends the given emails in a single provider call, so either all of them are accepted or the call throws.
+     * Callers never pass more than {@link #maxBatchSize()} emails.
+     */
+    void send(List<EmailJob> emails) throws MessagingException;
+
+    /**
+     * Most emails the provider accepts in one call.
+     */
+    int maxBatchSize();
+}
@@ -0,0 +1,40 @@
+package com.SSarkar.Xplore.service.email;
+
+import com.SSarkar.Xplore.entity.EmailJob;
+import jakarta.mail.MessagingException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for the email provider: logs emails instead of sending them.
+ * A failure rate can be configured to exercise the retry and dead-letter handling of the email queue.
+ */
+@Component
+@ConditionalOnProperty(name = "app.email.transport", havingValue = "log")
+@Slf4j
+public class LoggingEmailTransport implements EmailTransport {
+
+    // Share of send calls that fail, between 0 and 1
+    @Value("${app.email.log-transport.failure-rate:0}")
+    private double failureRate;
+
+    @Override
+    public void send(List<EmailJob> emails) throws MessagingException {
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new MessagingException("Simulated failure sending " + emails.size() + " emails");
+        }
+        for (EmailJob email : emails) {
+            log.info("[email] to={} subject=\"{}\" ({} chars of HTML)", email.getRecipientEmail(), email.getSubject(), email.getHtmlContent().length());
+        }
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return Integer.MAX_VALUE;
+    }
+}
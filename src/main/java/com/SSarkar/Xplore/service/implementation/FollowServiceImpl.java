@@ -10,6 +10,9 @@ import com.SSarkar.Xplore.repository.FollowRepository;
 import com.SSarkar.Xplore.repository.UserRepository;
 import com.SSarkar.Xplore.service.contract.FollowService;
 import com.SSarkar.Xplore.service.contract.NotificationService;
+import com.SSarkar.Xplore.service.contract.TimelineService;
+import com.SSarkar.Xplore.service.user.CurrentUserResolver;
+import com.SSarkar.Xplore.service.user.RelationshipResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -20,7 +23,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -33,12 +35,15 @@ public class FollowServiceImpl implements FollowService {
     private final UserRepository userRepository ;
     private final NotificationService notificationService;
     private final UserServiceImpl userServiceImpl;
+    private final TimelineService timelineService;
+    private final CurrentUserResolver currentUserResolver;
+    private final RelationshipResolver relationshipResolver;
 
 
     @Override
     @Transactional
     public String followUser(UUID userToFollowUuid, UserDetails currentUserDetails) {
-        User follower = userRepository.findByUsername(currentUserDetails.getUsername())
+        User follower = currentUserResolver.findUser(currentUserDetails)
                 .orElseThrow(()->new ResourceNotFoundException("User not found with username: " + currentUserDetails.getUsername()));
 
         User followee = (User) userRepository.findByUuid(userToFollowUuid)
@@ -58,6 +63,9 @@ public class FollowServiceImpl implements FollowService {
 
         Follow follow = new Follow(follower, followee);
         followRepository.save(follow);
+        userRepository.incrementFollowingCount(follower.getId(), 1);
+        userRepository.incrementFollowersCount(followee.getId(), 1);
+        timelineService.onFollow(follower, followee);
 
         log.info("User {} started following {}", follower.getUsername(), followee.getUsername());
 
@@ -81,6 +89,9 @@ public class FollowServiceImpl implements FollowService {
                 });
 
         followRepository.delete(follow);
+        userRepository.incrementFollowingCount(follower.getId(), -1);
+        userRepository.incrementFollowersCount(followee.getId(), -1);
+        timelineService.onUnfollow(follower, followee);
 
         log.info("User {} has unfollowed {}", follower.getUsername(), followee.getUsername());
 
@@ -97,17 +108,10 @@ public class FollowServiceImpl implements FollowService {
                 .map(Follow::getFollower)
                 .collect(Collectors.toList());
 
-        User currentUser = userRepository.findByUsername(currentUserDetails.getUsername()).orElse(null);
-
-        Set<UUID> followingUuids = (currentUser != null)
-                ? followRepository.findFollowingUuidsByCurrentUserAndUsers(currentUser, followers)
-                : Set.of();
+        RelationshipResolver.Relationships relationships = relationshipResolver.resolve(currentUserDetails, followers);
 
         List<UserResponseDTO> followersList = followers.stream()
-                .map(follower -> {
-                    boolean isFollowing = followingUuids.contains(follower.getUuid());
-                    return userServiceImpl.mapUserToResponse(follower, isFollowing);
-                })
+                .map(follower -> userServiceImpl.mapUserToResponse(follower, relationships))
                 .collect(Collectors.toList());
 
         return new PagedResponseDTO<>(
@@ -130,17 +134,10 @@ public class FollowServiceImpl implements FollowService {
                 .map(Follow::getFollowee)
                 .collect(Collectors.toList());
 
-        User currentUser = userRepository.findByUsername(currentUserDetails.getUsername()).orElse(null);
-
-        Set<UUID> followingUuids = (currentUser != null)
-                ? followRepository.findFollowingUuidsByCurrentUserAndUsers(currentUser, following)
-                : Set.of();
+        RelationshipResolver.Relationships relationships = relationshipResolver.resolve(currentUserDetails, following);
 
         List<UserResponseDTO> followingList = following.stream()
-                .map(followee -> {
-                    boolean isFollowing = followingUuids.contains(followee.getUuid());
-                    return userServiceImpl.mapUserToResponse(followee, isFollowing);
-                })
+                .map(followee -> userServiceImpl.mapUserToResponse(followee, relationships))
                 .collect(Collectors.toList());
 
         return new PagedResponseDTO<>(
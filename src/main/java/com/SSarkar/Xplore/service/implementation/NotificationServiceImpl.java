@@ -3,26 +3,44 @@ package com.SSarkar.Xplore.service.implementation;
 import com.SSarkar.Xplore.dto.notification.NotificationResponseDTO;
 import com.SSarkar.Xplore.dto.post.PagedResponseDTO;
 import com.SSarkar.Xplore.entity.Notification;
-import com.SSarkar.Xplore.entity.Post;
+import com.SSarkar.Xplore.entity.NotificationOutbox;
 import com.SSarkar.Xplore.entity.User;
 import com.SSarkar.Xplore.entity.enums.NotificationType;
+import com.SSarkar.Xplore.event.NotificationCreatedEvent;
+import com.SSarkar.Xplore.event.UnreadCountChangedEvent;
 import com.SSarkar.Xplore.exception.ResourceNotFoundException;
+import com.SSarkar.Xplore.model.NotificationDigest;
+import com.SSarkar.Xplore.repository.NotificationActorRepository;
+import com.SSarkar.Xplore.repository.NotificationOutboxRepository;
 import com.SSarkar.Xplore.repository.NotificationRepository;
 import com.SSarkar.Xplore.repository.PostRepository;
 import com.SSarkar.Xplore.repository.UserRepository;
 import com.SSarkar.Xplore.service.contract.EmailService;
 import com.SSarkar.Xplore.service.contract.NotificationService;
-import jakarta.mail.MessagingException;
+import com.SSarkar.Xplore.service.email.EmailRateLimiter;
+import com.SSarkar.Xplore.service.notification.NotificationStreamRegistry;
+import com.SSarkar.Xplore.service.notification.UnreadCountCache;
+import com.SSarkar.Xplore.service.user.CurrentUserResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 
@@ -31,9 +49,28 @@ import java.util.UUID;
 @Slf4j
 public class NotificationServiceImpl implements NotificationService {
     private final NotificationRepository notificationRepository;
+    private final NotificationActorRepository notificationActorRepository;
     private final UserRepository userRepository;
     private final EmailService emailService;
     private final PostRepository postRepository;
+    private final NotificationOutboxRepository notificationOutboxRepository;
+    private final NotificationStreamRegistry notificationStreamRegistry;
+    private final UnreadCountCache unreadCountCache;
+    private final EmailRateLimiter emailRateLimiter;
+    private final CurrentUserResolver currentUserResolver;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Likes and comments on the same post are merged into one notification; follows are always separate.
+    private static final Set<NotificationType> COALESCED_TYPES = EnumSet.of(NotificationType.POST_LIKE, NotificationType.POST_COMMENT);
+
+    @Value("${app.notifications.coalescing.window-ms}")
+    private long coalescingWindowMs;
+
+    @Value("${app.notifications.coalescing.max-recent-actors}")
+    private int maxRecentActors;
+
+    @Value("${app.email.digest.enabled}")
+    private boolean digestEnabled;
 
 
 
@@ -46,36 +83,118 @@ public class NotificationServiceImpl implements NotificationService {
             return;
         }
 
-        Notification notification = new Notification(recipient, sender, type, relatedEntityUuid);
-        notificationRepository.save(notification);
+        // Only the outbox row is written here, in the caller's transaction; the dispatcher does the rest.
+        notificationOutboxRepository.save(new NotificationOutbox(sender, recipient, type, relatedEntityUuid, comment));
+    }
 
-        System.out.println();
-        System.out.println("Saved notification of type: " + notification.getType());
-        System.out.println();
-        log.info("Saved notification of type {} for recipient {} from sender {}", type, recipient.getUsername(), sender.getUsername());
+    @Override
+    @Transactional
+    public void dispatchOutboxEntry(Long outboxEntryId) {
+        NotificationOutbox entry = notificationOutboxRepository.findWithUsersById(outboxEntryId).orElse(null);
+        if (entry == null) {
+            // Already delivered by another dispatcher.
+            return;
+        }
 
-        System.out.println();
-        System.out.println();
-        if (recipient.isEmailNotificationsEnabled()) {
-            Post post = postRepository.findByUuid(relatedEntityUuid).orElse(null);
-            String postUrl = null ;
-            if(post != null){
-                postUrl = "https://xplore-v7f1.vercel.app/post/" + post.getUuid().toString();
+        User sender = entry.getSender();
+        User recipient = entry.getRecipient();
+
+        // The post is looked up once here; the comment/post distinction is stored on the notification for later reads.
+        PostRepository.NotificationTargetView target = refersToPost(entry.getType()) && entry.getRelatedEntityUuid() != null
+                ? postRepository.findNotificationTargetByUuid(entry.getRelatedEntityUuid()).orElse(null)
+                : null;
+
+        boolean targetIsComment = target != null && target.getComment();
+        int unreadDelta = 1;
+
+        Notification notification = findCoalescable(entry);
+        if (notification != null) {
+            if (!notification.isRead()) {
+                // Already counted in the recipient's unread badge.
+                unreadDelta = 0;
             }
-            // Send email notification
-            try {
-                emailService.sendNotificationEmail(recipient.getEmail(), "New Notification from Xplore", generateMessage(notification), sender.getUsername(),sender.getUserProfile().getProfilePictureUrl(),comment == null ?(post == null ? null : post.getContent()):comment,postUrl);
-            } catch (MessagingException e) {
-                log.error("Failed to send notification email to {}", recipient.getEmail(), e);
+            boolean newActor = notificationActorRepository.addActor(notification.getId(), sender.getId()) > 0;
+            notification.addActor(sender, newActor, maxRecentActors);
+            notification.setTargetIsComment(targetIsComment);
+            log.debug("Coalesced notification of type {} for recipient {}, now {} actors",
+                    entry.getType(), recipient.getUsername(), notification.getActorCount());
+        } else {
+            notification = new Notification(recipient, sender, entry.getType(), entry.getRelatedEntityUuid());
+            notification.setTargetIsComment(targetIsComment);
+            notification = notificationRepository.save(notification);
+            notificationActorRepository.addActor(notification.getId(), sender.getId());
+            log.info("Saved notification of type {} for recipient {} from sender {}", entry.getType(), recipient.getUsername(), sender.getUsername());
+        }
+        notificationOutboxRepository.delete(entry);
+
+        eventPublisher.publishEvent(new NotificationCreatedEvent(recipient.getId(), mapEntityToDto(notification, targetIsComment), unreadDelta));
+
+        if (recipient.isEmailNotificationsEnabled() && digestEnabled) {
+            // Goes out with the recipient's next digest email instead of on its own.
+            if (notification.getEmailPendingSince() == null) {
+                notification.setEmailPendingSince(Instant.now());
+            }
+        } else if (recipient.isEmailNotificationsEnabled()
+                && emailRateLimiter.tryAcquire(recipient.getId(), sender.getId(), entry.getType(), entry.getRelatedEntityUuid())) {
+            String postUrl = null ;
+            if(target != null){
+                postUrl = "https://xplore-v7f1.vercel.app/post/" + target.getUuid().toString();
             }
+            String comment = entry.getComment();
+            // Queue email notification; one email per notification and actor count
+            String idempotencyKey = "notification:" + notification.getUuid() + ":" + notification.getActorCount();
+            emailService.sendNotificationEmail(idempotencyKey, recipient.getEmail(), "New Notification from Xplore", generateMessage(notification, targetIsComment), sender.getUsername(),sender.getUserProfile().getProfilePictureUrl(),comment == null ?(target == null ? null : target.getContent()):comment,postUrl);
         }
     }
 
+    @Override
+    @Transactional
+    public int sendDueDigests(Instant cutoff, int maxRecipients) {
+        List<Long> recipientIds = notificationRepository.findRecipientIdsWithDueDigest(cutoff, Limit.of(maxRecipients));
+        if (recipientIds.isEmpty()) {
+            return 0;
+        }
+        List<Long> notificationIds = notificationRepository.lockPendingEmailIds(recipientIds);
+        if (notificationIds.isEmpty()) {
+            // Another instance is sending these right now.
+            return 0;
+        }
+
+        // Rows come back grouped by recipient, newest first.
+        Map<Long, List<Notification>> byRecipient = new LinkedHashMap<>();
+        for (Notification notification : notificationRepository.findWithUsersByIdIn(notificationIds)) {
+            byRecipient.computeIfAbsent(notification.getRecipient().getId(), id -> new ArrayList<>()).add(notification);
+        }
+
+        List<NotificationDigest> digests = new ArrayList<>();
+        byRecipient.values().forEach(notifications -> {
+            User recipient = notifications.get(0).getRecipient();
+            // Recipients who turned email off since are only cleared.
+            if (recipient.isEmailNotificationsEnabled()) {
+                List<NotificationDigest.Item> items = notifications.stream()
+                        .map(n -> new NotificationDigest.Item(generateMessage(n, Boolean.TRUE.equals(n.getTargetIsComment())), notificationUrl(n)))
+                        .toList();
+                // The newest pending stamp changes with every digest, even when the same notification is re-sent.
+                Instant newestPending = notifications.stream().map(Notification::getEmailPendingSince).max(Instant::compareTo).orElseThrow();
+                String idempotencyKey = "digest:" + recipient.getId() + ":" + newestPending.toEpochMilli();
+                digests.add(new NotificationDigest(idempotencyKey, recipient.getEmail(), recipient.getUsername(), items));
+            }
+        });
+
+        // The digests are queued in the same transaction that clears the pending stamps, so none is lost or doubled.
+        emailService.sendNotificationDigests(digests);
+        notificationRepository.clearEmailPending(notificationIds);
+        log.info("Queued {} digest emails covering {} notifications", digests.size(), notificationIds.size());
+        return recipientIds.size();
+    }
+
     @Override
     @Transactional
     public void deleteNotifications(UserDetails currentUserDetails) {
         User recipient = findUserByDetails(currentUserDetails);
+        long unread = notificationRepository.countByRecipientAndIsReadFalse(recipient);
         notificationRepository.deleteAllByRecipient(recipient);
+        eventPublisher.publishEvent(new UnreadCountChangedEvent(recipient.getId(), -unread));
         log.info("Deleted all notifications for user {}", recipient.getUsername());
     }
 
@@ -90,11 +209,16 @@ public class NotificationServiceImpl implements NotificationService {
         List<NotificationResponseDTO> notificationDTOs = new ArrayList<>();
         List<Long> unreadNotificationIds = new ArrayList<>();
 
+        Set<UUID> legacyCommentUuids = findLegacyCommentUuids(notificationPage.getContent());
+
         // OPTIMIZATION: Process notifications in a single loop (O(N) complexity).
         notificationPage.getContent().forEach(notification -> {
 
             // 1. Map the entity to its DTO.
-            notificationDTOs.add(mapEntityToDto(notification));
+            boolean targetIsComment = notification.getTargetIsComment() != null
+                    ? notification.getTargetIsComment()
+                    : legacyCommentUuids.contains(notification.getRelatedEntityUuid());
+            notificationDTOs.add(mapEntityToDto(notification, targetIsComment));
             // 2. Collect IDs of unread notifications to mark them as read.
             if (!notification.isRead()) {
                 unreadNotificationIds.add(notification.getId());
@@ -104,6 +228,7 @@ public class NotificationServiceImpl implements NotificationService {
         // Perform a single bulk update query if there are unread notifications.
         if (!unreadNotificationIds.isEmpty()) {
             notificationRepository.markAsRead(recipient, unreadNotificationIds);
+            eventPublisher.publishEvent(new UnreadCountChangedEvent(recipient.getId(), -unreadNotificationIds.size()));
             log.info("Marked {} notifications as read for user {}", unreadNotificationIds.size(), recipient.getUsername());
         }
 
@@ -119,24 +244,89 @@ public class NotificationServiceImpl implements NotificationService {
     @Override
     @Transactional(readOnly = true) // This is a read-only operation, which can be a performance hint for the DB.
     public long getUnreadNotificationCount(UserDetails currentUserDetails) {
-        User recipient = findUserByDetails(currentUserDetails);
-        return notificationRepository.countByRecipientAndIsReadFalse(recipient);
+        Long recipientId = findUserIdByDetails(currentUserDetails);
+        return unreadCountCache.get(recipientId, () -> notificationRepository.countByRecipientIdAndIsReadFalse(recipientId));
+    }
+
+    @Override
+    public SseEmitter openStream(UserDetails currentUserDetails) {
+        // Deliberately not @Transactional, and excluded from open-in-view: the request stays open for the
+        // life of the stream, so any lookup here must run in its own short transaction and release its connection.
+        Long recipientId = findUserIdByDetails(currentUserDetails);
+        // The initial badge; after that the stream only carries deltas.
+        long unread = unreadCountCache.get(recipientId, () -> notificationRepository.countByRecipientIdAndIsReadFalse(recipientId));
+        return notificationStreamRegistry.register(recipientId, unread);
     }
 
 
     // -- HELPER methods ---
+
+    /**
+     * Finds the recipient's recent notification for the same like/comment target, if there is one within
+     * the coalescing window, so a popular post produces one row instead of one row per action.
+     *
+     * @return The notification to merge into, or null if a new one has to be created.
+     */
+    private Notification findCoalescable(NotificationOutbox entry) {
+        if (!COALESCED_TYPES.contains(entry.getType()) || entry.getRelatedEntityUuid() == null) {
+            return null;
+        }
+
+        Instant since = Instant.now().minusMillis(coalescingWindowMs);
+        return notificationRepository
+                .findFirstByRecipientAndRelatedEntityUuidAndTypeAndCreatedAtAfterOrderByCreatedAtDesc(
+                        entry.getRecipient(), entry.getRelatedEntityUuid(), entry.getType(), since)
+                .orElse(null);
+    }
+
+    private Long findUserIdByDetails(UserDetails userDetails) {
+        return currentUserResolver.findUserId(userDetails)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + userDetails.getUsername()));
+    }
+
     private User findUserByDetails(UserDetails userDetails) {
-        return userRepository.findByUsername(userDetails.getUsername())
+        return currentUserResolver.findUser(userDetails)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + userDetails.getUsername()));
     }
 
-    private NotificationResponseDTO mapEntityToDto(Notification notification) {
+    private static String notificationUrl(Notification notification) {
+        if (refersToPost(notification.getType()) && notification.getRelatedEntityUuid() != null) {
+            return "https://xplore-v7f1.vercel.app/post/" + notification.getRelatedEntityUuid();
+        }
+        if (notification.getSender() != null) {
+            return "https://xplore-v7f1.vercel.app/profile/" + notification.getSender().getUsername();
+        }
+        return "https://xplore-v7f1.vercel.app/notifications";
+    }
+
+    private static boolean refersToPost(NotificationType type) {
+        return type == NotificationType.POST_LIKE || type == NotificationType.POST_COMMENT || type == NotificationType.POST_CREATED;
+    }
+
+    /**
+     * Notifications created before the comment flag was stored have it null; resolve all of those
+     * on the page with a single query instead of one post lookup per notification.
+     */
+    private Set<UUID> findLegacyCommentUuids(List<Notification> notifications) {
+        Set<UUID> uuids = new HashSet<>();
+        for (Notification notification : notifications) {
+            if (notification.getTargetIsComment() == null && refersToPost(notification.getType())
+                    && notification.getRelatedEntityUuid() != null) {
+                uuids.add(notification.getRelatedEntityUuid());
+            }
+        }
+        return uuids.isEmpty() ? Set.of() : postRepository.findCommentUuidsIn(uuids);
+    }
+
+    private NotificationResponseDTO mapEntityToDto(Notification notification, boolean targetIsComment) {
         NotificationResponseDTO dto = new NotificationResponseDTO();
         dto.setNotificationUuid(notification.getUuid());
         dto.setType(notification.getType());
         dto.setRead(notification.isRead());
         dto.setCreatedAt(notification.getCreatedAt());
         dto.setRelatedEntityUuid(notification.getRelatedEntityUuid());
+        dto.setActorCount(notification.getActorCount());
+        dto.setRecentActorUsernames(notification.getRecentActorUsernames());
 
         if (notification.getSender() != null) {
             dto.setSenderUuid(notification.getSender().getUuid());
@@ -145,27 +335,27 @@ public class NotificationServiceImpl implements NotificationService {
                 dto.setSenderProfilePictureUrl(notification.getSender().getUserProfile().getProfilePictureUrl());
             }
         }
-        dto.setMessage(generateMessage(notification));
+        dto.setMessage(generateMessage(notification, targetIsComment));
         return dto;
     }
 
-    private String generateMessage(Notification notification) {
+    private String generateMessage(Notification notification, boolean targetIsComment) {
         String senderUsername = (notification.getSender() != null) ? notification.getSender().getUsername() : "Someone";
-
-        Post post = null;
-        if (notification.getRelatedEntityUuid() != null)
-            post = postRepository.findByUuid(notification.getRelatedEntityUuid()).orElse(null);
+        int others = notification.getActorCount() - 1;
+        if (others > 0) {
+            senderUsername += " and " + others + (others == 1 ? " other" : " others");
+        }
 
         switch (notification.getType()) {
             case NEW_FOLLOWER:
                 return senderUsername + " started following you.";
             case POST_LIKE:
-                if (post != null && post.getParentPost() != null)
+                if (targetIsComment)
                     return senderUsername + " liked your comment.";
                 else
                     return senderUsername + " liked your post.";
             case POST_COMMENT:
-                if (post != null && post.getParentPost() != null)
+                if (targetIsComment)
                     return senderUsername + " replied to your comment.";
                 else
                     return senderUsername + " commented on your post.";
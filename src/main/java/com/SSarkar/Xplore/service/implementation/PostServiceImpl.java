@@ -5,6 +5,7 @@ import com.SSarkar.Xplore.entity.Like;
 import com.SSarkar.Xplore.entity.Post;
 import com.SSarkar.Xplore.entity.User;
 import com.SSarkar.Xplore.entity.enums.NotificationType;
+import com.SSarkar.Xplore.event.PostCreatedEvent;
 import com.SSarkar.Xplore.exception.ResourceNotFoundException;
 import com.SSarkar.Xplore.repository.LikeRepository;
 import com.SSarkar.Xplore.repository.PostRepository;
@@ -12,11 +13,19 @@ import com.SSarkar.Xplore.repository.UserRepository;
 import com.SSarkar.Xplore.service.contract.CloudinaryService;
 import com.SSarkar.Xplore.service.contract.NotificationService;
 import com.SSarkar.Xplore.service.contract.PostService;
+import com.SSarkar.Xplore.service.contract.TimelineService;
+import com.SSarkar.Xplore.service.counter.LikeCountAggregator;
+import com.SSarkar.Xplore.service.counter.ShareCountAggregator;
+import com.SSarkar.Xplore.service.user.CurrentUserResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -27,6 +36,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -39,30 +49,23 @@ public class PostServiceImpl implements PostService {
     private final LikeRepository likeRepository;
     private final NotificationService notificationService;
     private final CloudinaryService cloudinaryService;
+    private final TimelineService timelineService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LikeCountAggregator likeCountAggregator;
+    private final ShareCountAggregator shareCountAggregator;
+    private final CurrentUserResolver currentUserResolver;
 
-    /**
-     * Helper method to compute the depth of posts for a single request.
-     * This is thread-safe as it operates on local variables.
-     */
-    private void computeAndStoreDepths(List<Post> posts) {
-        List<Post> postsToUpdate = new ArrayList<>();
-        for (Post post : posts) {
-            if (post.getDepth() == null) {
-                int depth = 0;
-                Post parent = post.getParentPost();
-                while (parent != null) {
-                    depth++;
-                    parent = parent.getParentPost();
-                }
-                post.setDepth(depth);
-                postsToUpdate.add(post);
-            }
-        }
+    // Upper bound for the page size a client may request in cursor mode.
+    private static final int MAX_CURSOR_PAGE_SIZE = 50;
+
+    // Number of direct replies embedded in the post detail response.
+    @Value("${app.posts.comments-page-size}")
+    private int commentsPageSize;
+
+    // Number of direct replies embedded in each post of a listing.
+    @Value("${app.posts.listing-comments-page-size}")
+    private int listingCommentsPageSize;
 
-        if (!postsToUpdate.isEmpty()) {
-            postRepository.saveAll(postsToUpdate);
-        }
-    }
     @Override
     @Transactional
     public PostResponseDTO createPost(CreatePostRequestDTO createPostRequest, List<MultipartFile> images, MultipartFile video, UserDetails currentUserDetails) {
@@ -74,7 +77,7 @@ public class PostServiceImpl implements PostService {
         newPost.setContent(createPostRequest.getContent());
         newPost.setDepth(0);
 
-        User author = userRepository.findByUsername(currentUserDetails.getUsername())
+        User author = currentUserResolver.findUser(currentUserDetails)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found while creating post"));
 
         // logic to handle MultipartFile images and video
@@ -111,10 +114,17 @@ public class PostServiceImpl implements PostService {
 
         author.addPost(newPost);
         Post savedPost = postRepository.save(newPost);
+        // A top-level post is the root of its own thread; the ID is only known once it has been inserted.
+        savedPost.setRootPostId(savedPost.getId());
+        savedPost.setThreadPath(savedPost.getId() + "/");
+        userRepository.incrementPostCount(author.getId(), 1);
         log.info("New post created with UUID: {} by user: {}", savedPost.getUuid(), author.getUsername());
 
+        // Followers' timelines are updated after this transaction commits
+        eventPublisher.publishEvent(new PostCreatedEvent(savedPost.getId()));
+
         // Mapping to DTO
-        PostResponseDTO response = mapPostToResponseDTO(savedPost, author, 0, Collections.emptyMap(), Collections.emptySet());
+        PostResponseDTO response = mapPostToResponseDTO(savedPost, Collections.emptySet());
         response.setDepth(0); // Manually set depth to 0 for a new post
         return response;
     }
@@ -122,7 +132,7 @@ public class PostServiceImpl implements PostService {
     @Override
     @Transactional
     public PostResponseDTO addCommentToPost(UUID parentPostUuid, CommentRequestDTO commentRequest, List<MultipartFile> images, UserDetails currentUserDetails) {
-        User author = userRepository.findByUsername(currentUserDetails.getUsername())
+        User author = currentUserResolver.findUser(currentUserDetails)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
         Post parentPost = postRepository.findByUuid(parentPostUuid)
                 .orElseThrow(() -> new ResourceNotFoundException("Post not found with UUID: " + parentPostUuid));
@@ -131,14 +141,11 @@ public class PostServiceImpl implements PostService {
         comment.setContent(commentRequest.getContent());
         comment.setAuthor(author);
 
-        // Calculate and set depth
-        int depth = 0;
-        Post parent = parentPost;
-        while (parent != null) {
-            depth++;
-            parent = parent.getParentPost();
-        }
+        // The thread position is derived from the parent, so it is stored once here and never recomputed on read
+        ensureThreadPosition(parentPost);
+        int depth = parentPost.getDepth() + 1;
         comment.setDepth(depth);
+        comment.setRootPostId(parentPost.getRootPostId());
 
         // Logic to handle MultipartFile images
         if (images != null && !images.isEmpty()) {
@@ -159,45 +166,42 @@ public class PostServiceImpl implements PostService {
 
         // Save the comment first to make it a persistent entity
         Post savedComment = postRepository.save(comment);
+        savedComment.setThreadPath(parentPost.getThreadPath() + savedComment.getId() + "/");
 
         // Now add the persistent comment to the parent post
         parentPost.addComment(savedComment);
         postRepository.save(parentPost);
 
+        postRepository.incrementCommentCount(parentPost.getId(), 1);
+        postRepository.incrementDescendantCount(savedComment.ancestorIds(), 1);
+        userRepository.incrementPostCount(author.getId(), 1);
+
         //log.info("New comment with UUID: {} added to post with UUID: {}", savedComment.getUuid(), parentPost.getUuid());
         notificationService.createNotification(author, parentPost.getAuthor(), NotificationType.POST_COMMENT, parentPost.getUuid(), commentRequest.getContent());
 
-        PostResponseDTO response = mapPostToResponseDTO(savedComment, author, 0, Collections.emptyMap(), Collections.emptySet());
+        PostResponseDTO response = mapPostToResponseDTO(savedComment, Collections.emptySet());
         response.setDepth(depth); // Manually set calculated depth
         return response;
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public PagedResponseDTO<PostResponseDTO> getAllTopLevelPosts(Pageable pageable, UserDetails currentUserDetails) {
 
         Page<Post> postPage = postRepository.findAllByParentPostIsNull(pageable);
         log.debug("Fetched {} top-level posts from page {}", postPage.getNumberOfElements(), pageable.getPageNumber());
 
         List<Post> posts = postPage.getContent();
-        computeAndStoreDepths(posts);
 
         User currentUser = getCurrentUserOrNull(currentUserDetails);
 
-        // Fetch like counts in bulk
-        Map<UUID, Long> likeCounts = postRepository.countLikesForPosts(posts).stream()
-                .collect(Collectors.toMap(
-                        result -> (UUID) result.get("postUuid"),
-                        result -> (Long) result.get("likeCount")));
 
         // Fetch liked statuses in bulk
         Set<UUID> likedPostUuids = (currentUser != null)
                 ? likeRepository.findLikedPostUuidsByUserAndPosts(currentUser, posts)
                 : Collections.emptySet();
 
-        List<PostResponseDTO> postResponseDTOList = posts.stream()
-                .map(post -> mapPostToResponseDTO(post, currentUser, 1, likeCounts, likedPostUuids))
-                .collect(Collectors.toList());
+        List<PostResponseDTO> postResponseDTOList = mapListing(posts, likedPostUuids, currentUser);
 
         return new PagedResponseDTO<>(
                 postResponseDTOList,
@@ -209,7 +213,7 @@ public class PostServiceImpl implements PostService {
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public PagedResponseDTO<PostResponseDTO> getAllFollowingPost(Pageable pageable, UserDetails currentUserDetails) {
 
         User currentUser = getCurrentUserOrNull(currentUserDetails);
@@ -223,18 +227,11 @@ public class PostServiceImpl implements PostService {
 
         Page<Post> postPage = postRepository.findPostsByFollowing(currentUser.getUuid(), pageable);
         List<Post> posts = postPage.getContent();
-        computeAndStoreDepths(posts);
 
-        Map<UUID, Long> likeCounts = postRepository.countLikesForPosts(posts).stream()
-                .collect(Collectors.toMap(
-                        result -> (UUID) result.get("postUuid"),
-                        result -> (Long) result.get("likeCount")));
 
         Set<UUID> likedPostUuids = likeRepository.findLikedPostUuidsByUserAndPosts(currentUser, posts);
 
-        List<PostResponseDTO> postResponseDTOList = posts.stream()
-                .map(post -> mapPostToResponseDTO(post, currentUser, 1, likeCounts, likedPostUuids))
-                .collect(Collectors.toList());
+        List<PostResponseDTO> postResponseDTOList = mapListing(posts, likedPostUuids, currentUser);
 
         return new PagedResponseDTO<>(
                 postResponseDTOList,
@@ -247,7 +244,7 @@ public class PostServiceImpl implements PostService {
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public PagedResponseDTO<PostResponseDTO> getFeedPosts(Pageable pageable, UserDetails currentUserDetails) {
         User currentUser = getCurrentUserOrNull(currentUserDetails);
 
@@ -258,47 +255,31 @@ public class PostServiceImpl implements PostService {
         // Create a new Pageable object without any sorting information
         Pageable unsortedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
 
-        // Step 1: Get the sorted and paginated list of Post UUIDs using the unsorted pageable.
-        Page<UUID> postUuidsPage = postRepository.findFeedPostUuidsForUser(currentUser, unsortedPageable); // Use the new unsortedPageable
-        List<UUID> postUuids = postUuidsPage.getContent();
-
-        if (postUuids.isEmpty()) {
-            return new PagedResponseDTO<>(Collections.emptyList(), postUuidsPage.getNumber(), postUuidsPage.getTotalPages(), postUuidsPage.getTotalElements(), postUuidsPage.isLast());
-        }
-
-        // Step 2: Fetch the full Post entities for the retrieved UUIDs.
-        List<Post> posts = postRepository.findByUuidIn(postUuids);
-
-        // Re-sort the posts in memory to match the order from the first query
-        posts.sort(Comparator.comparing(p -> postUuids.indexOf(p.getUuid())));
-
-        computeAndStoreDepths(posts);
+        // The user's precomputed timeline first, then everyone else's posts for discovery.
+        Slice<Post> postSlice = timelineService.getFeedPosts(currentUser, unsortedPageable);
+        List<Post> posts = postSlice.getContent();
 
         log.debug("Fetched {} feed posts for user {}", posts.size(), currentUser.getUsername());
 
-        // ... the rest of the method remains the same ...
-        Map<UUID, Long> likeCounts = postRepository.countLikesForPosts(posts).stream()
-                .collect(Collectors.toMap(
-                        result -> (UUID) result.get("postUuid"),
-                        result -> (Long) result.get("likeCount")));
-
-        Set<UUID> likedPostUuids = likeRepository.findLikedPostUuidsByUserAndPosts(currentUser, posts);
+        Set<UUID> likedPostUuids = posts.isEmpty()
+                ? Collections.emptySet()
+                : likeRepository.findLikedPostUuidsByUserAndPosts(currentUser, posts);
 
-        List<PostResponseDTO> postResponseDTOList = posts.stream()
-                .map(post -> mapPostToResponseDTO(post, currentUser, 1, likeCounts, likedPostUuids))
-                .collect(Collectors.toList());
+        List<PostResponseDTO> postResponseDTOList = mapListing(posts, likedPostUuids, currentUser);
 
+        // The feed is not counted. The totals cover the pages up to this one, and one more post if there is a next page.
+        long itemsSoFar = postSlice.getPageable().getOffset() + posts.size();
         return new PagedResponseDTO<>(
                 postResponseDTOList,
-                postUuidsPage.getNumber(),
-                postUuidsPage.getTotalPages(),
-                postUuidsPage.getTotalElements(),
-                postUuidsPage.isLast()
+                postSlice.getNumber(),
+                postSlice.hasNext() ? postSlice.getNumber() + 2 : postSlice.getNumber() + 1,
+                postSlice.hasNext() ? itemsSoFar + 1 : itemsSoFar,
+                postSlice.isLast()
         );
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public PagedResponseDTO<PostResponseDTO> getPostsByUser(UUID userUuid, Pageable pageable, UserDetails currentUserDetails) {
         User postAuthor = (User) userRepository.findByUuid(userUuid)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with UUID: " + userUuid));
@@ -307,22 +288,15 @@ public class PostServiceImpl implements PostService {
         log.debug("Fetched {} posts for user {}", postPage.getNumberOfElements(), postAuthor.getUsername());
 
         List<Post> posts = postPage.getContent();
-        computeAndStoreDepths(posts);
 
         User currentUser = getCurrentUserOrNull(currentUserDetails);
 
-        Map<UUID, Long> likeCounts = postRepository.countLikesForPosts(posts).stream()
-                .collect(Collectors.toMap(
-                        result -> (UUID) result.get("postUuid"),
-                        result -> (Long) result.get("likeCount")));
 
         Set<UUID> likedPostUuids = (currentUser != null)
                 ? likeRepository.findLikedPostUuidsByUserAndPosts(currentUser, posts)
                 : Collections.emptySet();
 
-        List<PostResponseDTO> postResponseDTOList = posts.stream()
-                .map(post -> mapPostToResponseDTO(post, currentUser, 1, likeCounts, likedPostUuids))
-                .collect(Collectors.toList());
+        List<PostResponseDTO> postResponseDTOList = mapListing(posts, likedPostUuids, currentUser);
 
         return new PagedResponseDTO<>(
                 postResponseDTOList,
@@ -333,23 +307,8 @@ public class PostServiceImpl implements PostService {
         );
     }
 
-    // Add this helper method to your PostServiceImpl class
-    private List<Post> collectAllPostsIncludingComments(Post post) {
-        List<Post> allPosts = new ArrayList<>();
-        allPosts.add(post);
-
-        if (post.getComments() != null && !post.getComments().isEmpty()) {
-            for (Post comment : post.getComments()) {
-                allPosts.addAll(collectAllPostsIncludingComments(comment));
-            }
-        }
-
-        return allPosts;
-    }
-
-
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public PostResponseDTO getPostByUuid(UUID uuid, UserDetails currentUserDetails) {
         Post post = postRepository.findByUuid(uuid)
                 .map(p -> (Post) p) // Cast from Object to Post
@@ -357,29 +316,44 @@ public class PostServiceImpl implements PostService {
 
         User currentUser = getCurrentUserOrNull(currentUserDetails);
 
-        // ✅ Collect ALL posts (the main post + all its nested comments) into a flat list.
-        List<Post> allPosts = collectAllPostsIncludingComments(post);
+        // Only the first page of direct replies is embedded; the rest of the thread is loaded on demand
+        // through getComments, so the response size no longer grows with the size of the thread.
+        List<Post> rows = postRepository.findRepliesAfter(post.getId(), PostCursor.OLDEST.createdAt(), PostCursor.OLDEST.id(),
+                Limit.of(commentsPageSize + 1));
+        boolean hasMoreReplies = rows.size() > commentsPageSize;
+        List<Post> replies = hasMoreReplies ? rows.subList(0, commentsPageSize) : rows;
+
+        List<Post> renderedPosts = new ArrayList<>();
+        renderedPosts.add(post);
+        renderedPosts.addAll(replies);
+        List<PostResponseDTO> renderedDTOs = mapPostsWithoutReplies(renderedPosts, currentUser);
+
+        PostResponseDTO dto = renderedDTOs.get(0);
+        if (!replies.isEmpty()) {
+            dto.setComments(renderedDTOs.subList(1, renderedDTOs.size()));
+        }
+        if (hasMoreReplies) {
+            dto.setCommentsNextCursor(cursorOf(replies.get(replies.size() - 1)).encode());
+        }
+        return dto;
+    }
 
-        // ✅ Run the depth calculation on the entire collection of posts.
-        computeAndStoreDepths(allPosts);
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPagedResponseDTO<PostResponseDTO> getComments(UUID postUuid, String cursor, int size, UserDetails currentUserDetails) {
+        Post parent = postRepository.findByUuid(postUuid)
+                .orElseThrow(() -> new ResourceNotFoundException("Post not found with UUID: " + postUuid));
 
+        PostCursor after = PostCursor.decode(cursor, PostCursor.OLDEST);
+        int limit = cursorPageSize(size);
+        List<Post> rows = postRepository.findRepliesAfter(parent.getId(), after.createdAt(), after.id(), Limit.of(limit + 1));
 
-        // ✅ Calculate like counts for all the posts in the thread using a for-loop.
-        List<Map<String, Object>> likeCountResults = postRepository.countLikesForPosts(allPosts);
-        Map<UUID, Long> likeCounts = new HashMap<>();
-        for (Map<String, Object> result : likeCountResults) {
-            UUID postUuid = (UUID) result.get("postUuid");
-            Long count = (Long) result.get("likeCount");
-            likeCounts.put(postUuid, count);
-        }
+        boolean hasNext = rows.size() > limit;
+        List<Post> replies = hasNext ? rows.subList(0, limit) : rows;
 
-        // ✅ Calculate the liked status for all posts in the thread.
-        Set<UUID> likedPostUuids = (currentUser != null)
-                ? likeRepository.findLikedPostUuidsByUserAndPosts(currentUser, allPosts)
-                : Collections.emptySet();
-
-        // ✅ Correctly call the mapping function.
-        return mapPostToResponseDTO(post, currentUser, 1, likeCounts, likedPostUuids);
+        List<PostResponseDTO> replyDTOs = mapPostsWithoutReplies(replies, getCurrentUserOrNull(currentUserDetails));
+        String nextCursor = hasNext ? cursorOf(replies.get(replies.size() - 1)).encode() : null;
+        return new CursorPagedResponseDTO<>(replyDTOs, nextCursor, hasNext);
     }
 
     @Override
@@ -396,6 +370,21 @@ public class PostServiceImpl implements PostService {
                     currentUsername, uuid, authorUsername);
             throw new AccessDeniedException("You are not authorized to delete this post");
         }
+
+        // The whole subtree goes away with the post, so every ancestor loses all of it.
+        ensureThreadPosition(postToDelete);
+        if (postToDelete.getParentPost() != null) {
+            postRepository.incrementCommentCount(postToDelete.getParentPost().getId(), -1);
+            postRepository.incrementDescendantCount(postToDelete.ancestorIds(), -(postToDelete.getDescendantCount() + 1));
+        }
+        // ... and so does every author with a post in it, one update per author (in ID order, so concurrent deletes lock alike).
+        // Until the thread backfill has run, comments may lack a thread path, so the subtree is found through parent links.
+        List<PostRepository.AuthorPostCount> subtreePostsByAuthor = postRepository.existsByThreadPathIsNull()
+                ? postRepository.countSubtreePostsByAuthorViaParents(postToDelete.getId())
+                : postRepository.countSubtreePostsByAuthor(postToDelete.getThreadPath());
+        for (PostRepository.AuthorPostCount authorPosts : subtreePostsByAuthor) {
+            userRepository.incrementPostCount(authorPosts.getAuthorId(), -authorPosts.getPostCount());
+        }
         postRepository.delete(postToDelete);
         log.info("Post with UUID: {} deleted successfully by user: {}", uuid, currentUsername);
     }
@@ -403,7 +392,7 @@ public class PostServiceImpl implements PostService {
     @Override
     @Transactional
     public void updatePost(UserDetails currentUser, UUID postUuid, PostUpdateDTO postUpdateDTO) {
-        User user = userRepository.findByUsername(currentUser.getUsername())
+        User user = currentUserResolver.findUser(currentUser)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
         Post post = postRepository.findByUuid(postUuid)
@@ -463,45 +452,57 @@ public class PostServiceImpl implements PostService {
 
 
     }
+    // Each like write is one statement keyed on the post UUID and the user ID; see LikeRepository.
+
     @Override
     @Transactional
-    public String likePost(UUID postUuid, UserDetails currentUserDetails) {
-        User user = userRepository.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        Post post = postRepository.findByUuid(postUuid)
+    public LikeResponseDTO toggleLike(UUID postUuid, UserDetails currentUserDetails) {
+        Long userId = getCurrentUserId(currentUserDetails);
+        LikeRepository.LikeWriteResult result = likeRepository.toggleLike(postUuid, userId, UUID.randomUUID())
                 .orElseThrow(() -> new ResourceNotFoundException("Post not found with UUID: " + postUuid));
+        return applyLikeWrite(result, userId, postUuid);
+    }
 
-        if (likeRepository.findByUserAndPost(user, post).isPresent()) {
-            unlikePost(postUuid, currentUserDetails);
-            log.info("User {} unliked post {}", user.getUsername(), postUuid);
-            return "Unliked the post";
-        }
-
-        Like newLike = new Like(user, post);
-        likeRepository.save(newLike);
-        log.info("User {} liked post {}", user.getUsername(), postUuid);
-        notificationService.createNotification(user, post.getAuthor(), NotificationType.POST_LIKE, post.getUuid(),null);
-
-        return "Liked the post";
+    @Override
+    @Transactional
+    public LikeResponseDTO likePost(UUID postUuid, UserDetails currentUserDetails) {
+        Long userId = getCurrentUserId(currentUserDetails);
+        LikeRepository.LikeWriteResult result = likeRepository.insertLike(postUuid, userId, UUID.randomUUID())
+                .orElseThrow(() -> new ResourceNotFoundException("Post not found with UUID: " + postUuid));
+        return applyLikeWrite(result, userId, postUuid);
     }
 
     @Override
     @Transactional
-    public void unlikePost(UUID postUuid, UserDetails currentUserDetails) {
-        User user = userRepository.findByUsername(currentUserDetails.getUsername())
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        Post post = postRepository.findByUuid(postUuid)
+    public LikeResponseDTO unlikePost(UUID postUuid, UserDetails currentUserDetails) {
+        Long userId = getCurrentUserId(currentUserDetails);
+        LikeRepository.LikeWriteResult result = likeRepository.deleteLike(postUuid, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post not found with UUID: " + postUuid));
+        return applyLikeWrite(result, userId, postUuid);
+    }
+
+    private LikeResponseDTO applyLikeWrite(LikeRepository.LikeWriteResult result, Long userId, UUID postUuid) {
+        Long postId = result.getPostId();
+        long delta = result.getDelta();
+
+        // Read before recording this write: the delta only joins the pending counter once the transaction commits.
+        long likeCount = result.getLikeCount() + likeCountAggregator.pendingDelta(postId) + delta;
 
-        Like like = likeRepository.findByUserAndPost(user, post)
-                .orElseThrow(() -> new ResourceNotFoundException("Like not found for this user and post"));
+        if (delta != 0) {
+            likeCountAggregator.increment(postId, delta);
+        }
+        if (delta > 0) {
+            notificationService.createNotification(userRepository.getReferenceById(userId),
+                    userRepository.getReferenceById(result.getAuthorId()), NotificationType.POST_LIKE, postUuid, null);
+        }
 
-        likeRepository.delete(like);
-        log.info("User {} unliked post {}", user.getUsername(), postUuid);
+        String message = result.getLiked() ? "Liked the post" : "Unliked the post";
+        log.info("User {} {} post {}", userId, result.getLiked() ? "liked" : "unliked", postUuid);
+        return new LikeResponseDTO(result.getLiked(), likeCount, message);
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public PagedResponseDTO<PostResponseDTO> getLikedPostsByUser(UUID userUuid, Pageable pageable) {
         User user = (User) userRepository.findByUuid(userUuid)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with uuid: " + userUuid));
@@ -512,13 +513,7 @@ public class PostServiceImpl implements PostService {
         List<Post> posts = likedPostsPage.getContent().stream()
                 .map(Like::getPost)
                 .collect(Collectors.toList());
-        computeAndStoreDepths(posts);
 
-        // Fetch like counts for these posts in bulk
-        Map<UUID, Long> likeCounts = postRepository.countLikesForPosts(posts).stream()
-                .collect(Collectors.toMap(
-                        result -> (UUID) result.get("postUuid"),
-                        result -> (Long) result.get("likeCount")));
 
         // Fetch liked statuses for these posts in bulk
         // Since these are all liked posts by the user, all of them will be in the set.
@@ -527,9 +522,7 @@ public class PostServiceImpl implements PostService {
                 .collect(Collectors.toSet());
 
         // Use the new mapping method with the fetched data
-        List<PostResponseDTO> postResponseDTOs = posts.stream()
-                .map(post -> mapPostToResponseDTO(post, user, 1, likeCounts, likedPostUuids))
-                .collect(Collectors.toList());
+        List<PostResponseDTO> postResponseDTOs = mapListing(posts, likedPostUuids, user);
 
         return new PagedResponseDTO<>(
                 postResponseDTOs,
@@ -543,37 +536,31 @@ public class PostServiceImpl implements PostService {
     @Override
     public String increaseShareCount(UUID postUuid) {
 
-        Post post = postRepository.findByUuid(postUuid).orElseThrow(()->new ResourceNotFoundException("Post not found with UUID: " + postUuid));
+        PostRepository.ShareCountView post = postRepository.findShareCountByUuid(postUuid)
+                .orElseThrow(() -> new ResourceNotFoundException("Post not found with UUID: " + postUuid));
 
-        post.setShareCount(post.getShareCount() + 1);
-        postRepository.save(post);
+        // Buffered and written in batches, so concurrent shares of the same post neither lose updates nor queue on its row.
+        shareCountAggregator.increment(post.getId(), 1);
 
-        return "incremented shareCount to " + post.getShareCount();
+        return "incremented shareCount to " + (post.getShareCount() + shareCountAggregator.pendingDelta(post.getId()));
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public PagedResponseDTO<PostResponseDTO> getAllShorts(Pageable pageable, UserDetails currentUserDetails) {
         Page<Post> postPage = postRepository.findAllByPostType(Post.PostType.VIDEO_SHORT, pageable);
         log.debug("Fetched {} shorts from page {}", postPage.getNumberOfElements(), pageable.getPageNumber());
 
         List<Post> posts = postPage.getContent();
-        computeAndStoreDepths(posts);
 
         User currentUser = getCurrentUserOrNull(currentUserDetails);
 
-        Map<UUID, Long> likeCounts = postRepository.countLikesForPosts(posts).stream()
-                .collect(Collectors.toMap(
-                        result -> (UUID) result.get("postUuid"),
-                        result -> (Long) result.get("likeCount")));
 
         Set<UUID> likedPostUuids = (currentUser != null)
                 ? likeRepository.findLikedPostUuidsByUserAndPosts(currentUser, posts)
                 : Collections.emptySet();
 
-        List<PostResponseDTO> postResponseDTOList = posts.stream()
-                .map(post -> mapPostToResponseDTO(post, currentUser, 1, likeCounts, likedPostUuids))
-                .collect(Collectors.toList());
+        List<PostResponseDTO> postResponseDTOList = mapListing(posts, likedPostUuids, currentUser);
 
         return new PagedResponseDTO<>(
                 postResponseDTOList,
@@ -584,19 +571,228 @@ public class PostServiceImpl implements PostService {
         );
     }
 
+    // --- CURSOR (KEYSET) PAGINATION ---
+    // Each listing fetches one row more than requested to learn whether a next page exists,
+    // so no COUNT query is needed and page N costs the same as page 1.
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPagedResponseDTO<PostResponseDTO> getFeedPosts(String cursor, int size, UserDetails currentUserDetails) {
+        PostCursor after = PostCursor.decode(cursor);
+        int limit = cursorPageSize(size);
+        User currentUser = getCurrentUserOrNull(currentUserDetails);
+
+        if (currentUser == null) {
+            List<Post> rows = postRepository.findTopLevelByPostTypeBefore(Post.PostType.TEXT_IMAGE, after.createdAt(), after.id(), Limit.of(limit + 1));
+            return toCursorPage(rows, limit, Function.identity(), this::cursorOf, null, null);
+        }
+
+        // Same order as the offset feed: the user's timeline, then everyone else's posts.
+        List<TimelineService.FeedPost> rows = timelineService.getFeedPosts(currentUser, after, limit + 1);
+        return toCursorPage(rows, limit, TimelineService.FeedPost::post, TimelineService.FeedPost::cursor, currentUser, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPagedResponseDTO<PostResponseDTO> getAllFollowingPost(String cursor, int size, UserDetails currentUserDetails) {
+        User currentUser = getCurrentUserOrNull(currentUserDetails);
+        if (currentUser == null) {
+            return new CursorPagedResponseDTO<>(Collections.emptyList(), null, false);
+        }
+
+        PostCursor after = PostCursor.decode(cursor);
+        int limit = cursorPageSize(size);
+        List<Post> rows = postRepository.findPostsByFollowingBefore(currentUser.getUuid(), after.createdAt(), after.id(), Limit.of(limit + 1));
+
+        return toCursorPage(rows, limit, Function.identity(), this::cursorOf, currentUser, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPagedResponseDTO<PostResponseDTO> getPostsByUser(UUID userUuid, String cursor, int size, UserDetails currentUserDetails) {
+        PostCursor after = PostCursor.decode(cursor);
+        int limit = cursorPageSize(size);
+        List<Post> rows = postRepository.findByAuthorBefore(userUuid, after.createdAt(), after.id(), Limit.of(limit + 1));
+
+        return toCursorPage(rows, limit, Function.identity(), this::cursorOf, getCurrentUserOrNull(currentUserDetails), null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPagedResponseDTO<PostResponseDTO> getLikedPostsByUser(UUID userUuid, String cursor, int size) {
+        User user = (User) userRepository.findByUuid(userUuid)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with uuid: " + userUuid));
+
+        PostCursor after = PostCursor.decode(cursor);
+        int limit = cursorPageSize(size);
+        // Liked posts are paged by the time of the like, not the time of the post.
+        List<Like> rows = likeRepository.findByUserBefore(user, after.createdAt(), after.id(), Limit.of(limit + 1));
+
+        Set<UUID> likedPostUuids = rows.stream()
+                .map(like -> like.getPost().getUuid())
+                .collect(Collectors.toSet());
+
+        return toCursorPage(rows, limit, Like::getPost, like -> new PostCursor(like.getCreatedAt(), like.getId()), user, likedPostUuids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPagedResponseDTO<PostResponseDTO> getAllShorts(String cursor, int size, UserDetails currentUserDetails) {
+        PostCursor after = PostCursor.decode(cursor);
+        int limit = cursorPageSize(size);
+        List<Post> rows = postRepository.findTopLevelByPostTypeBefore(Post.PostType.VIDEO_SHORT, after.createdAt(), after.id(), Limit.of(limit + 1));
+
+        return toCursorPage(rows, limit, Function.identity(), this::cursorOf, getCurrentUserOrNull(currentUserDetails), null);
+    }
+
     // --- HELPER METHODS ---
 
+    /**
+     * Fills in depth and rootPostId for a post written before they were maintained on write.
+     * Only reached until the thread backfill job has covered the row; afterwards it returns immediately.
+     */
+    private void ensureThreadPosition(Post post) {
+        if (post.getDepth() != null && post.getRootPostId() != null && post.getThreadPath() != null) {
+            return;
+        }
+        Post parent = post.getParentPost();
+        if (parent == null) {
+            post.setDepth(0);
+            post.setRootPostId(post.getId());
+            post.setThreadPath(post.getId() + "/");
+        } else {
+            ensureThreadPosition(parent);
+            post.setDepth(parent.getDepth() + 1);
+            post.setRootPostId(parent.getRootPostId());
+            post.setThreadPath(parent.getThreadPath() + post.getId() + "/");
+        }
+    }
+
+    /**
+     * Maps posts without embedding their replies, in the given order.
+     * Liked statuses are looked up for the whole batch at once.
+     */
+    private List<PostResponseDTO> mapPostsWithoutReplies(List<Post> posts, User currentUser) {
+        if (posts.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+
+        Set<UUID> likedPostUuids = (currentUser != null)
+                ? likeRepository.findLikedPostUuidsByUserAndPosts(currentUser, posts)
+                : Collections.emptySet();
+
+        List<PostResponseDTO> dtos = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            dtos.add(mapPostToResponseDTO(post, likedPostUuids));
+        }
+        return dtos;
+    }
+
+    /**
+     * Maps the posts of a listing, each with its first replies embedded (oldest first, as in the post detail view)
+     * and a cursor for getComments when it has more. The replies of all posts are loaded with one query.
+     *
+     * @param likedBy User whose likes mark the embedded replies as liked, or null.
+     */
+    private List<PostResponseDTO> mapListing(List<Post> posts, Set<UUID> likedPostUuids, User likedBy) {
+        List<PostResponseDTO> dtos = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            dtos.add(mapPostToResponseDTO(post, likedPostUuids));
+        }
+        if (posts.isEmpty() || listingCommentsPageSize <= 0) {
+            return dtos;
+        }
+
+        List<Long> replyIds = postRepository.findFirstReplyIds(posts.stream().map(Post::getId).toList(), listingCommentsPageSize + 1);
+        if (replyIds.isEmpty()) {
+            return dtos;
+        }
+        List<Post> allReplies = postRepository.findWithAuthorByIdIn(replyIds);
+        allReplies.sort(Comparator.comparing(Post::getCreatedAt).thenComparing(Post::getId));
+
+        Map<Long, List<Post>> repliesByParentId = new HashMap<>();
+        for (Post reply : allReplies) {
+            repliesByParentId.computeIfAbsent(reply.getParentPost().getId(), id -> new ArrayList<>()).add(reply);
+        }
+        Set<UUID> likedReplyUuids = likedBy != null
+                ? likeRepository.findLikedPostUuidsByUserAndPosts(likedBy, allReplies)
+                : Collections.emptySet();
+
+        for (int i = 0; i < posts.size(); i++) {
+            List<Post> rows = repliesByParentId.get(posts.get(i).getId());
+            if (rows == null) {
+                continue;
+            }
+            boolean hasMoreReplies = rows.size() > listingCommentsPageSize;
+            List<Post> replies = hasMoreReplies ? rows.subList(0, listingCommentsPageSize) : rows;
+
+            PostResponseDTO dto = dtos.get(i);
+            dto.setComments(replies.stream().map(reply -> mapPostToResponseDTO(reply, likedReplyUuids)).collect(Collectors.toList()));
+            if (hasMoreReplies) {
+                dto.setCommentsNextCursor(cursorOf(replies.get(replies.size() - 1)).encode());
+            }
+        }
+        return dtos;
+    }
+
+    private int cursorPageSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_CURSOR_PAGE_SIZE));
+    }
+
+    private PostCursor cursorOf(Post post) {
+        return new PostCursor(post.getCreatedAt(), post.getId());
+    }
+
+    /**
+     * Builds a cursor page from up to {@code limit + 1} keyset rows.
+     *
+     * @param rows           Rows in listing order; the extra row, if present, only signals that a next page exists.
+     * @param postOf         Extracts the post to render from a row.
+     * @param cursorOf       Extracts the (createdAt, id) key of a row.
+     * @param likedPostUuids Liked statuses if already known, or null to look them up for {@code currentUser}.
+     */
+    private <T> CursorPagedResponseDTO<PostResponseDTO> toCursorPage(List<T> rows, int limit,
+                                                                     Function<T, Post> postOf,
+                                                                     Function<T, PostCursor> cursorOf,
+                                                                     User currentUser,
+                                                                     Set<UUID> likedPostUuids) {
+        boolean hasNext = rows.size() > limit;
+        List<T> pageRows = hasNext ? rows.subList(0, limit) : rows;
+
+        List<Post> posts = pageRows.stream().map(postOf).collect(Collectors.toList());
+
+        if (likedPostUuids == null) {
+            likedPostUuids = (currentUser != null && !posts.isEmpty())
+                    ? likeRepository.findLikedPostUuidsByUserAndPosts(currentUser, posts)
+                    : Collections.emptySet();
+        }
+
+        Set<UUID> liked = likedPostUuids;
+        List<PostResponseDTO> postResponseDTOList = mapListing(posts, liked, currentUser);
+
+        String nextCursor = hasNext ? cursorOf.apply(pageRows.get(pageRows.size() - 1)).encode() : null;
+        return new CursorPagedResponseDTO<>(postResponseDTOList, nextCursor, hasNext);
+    }
+
+    private Long getCurrentUserId(UserDetails userDetails) {
+        return currentUserResolver.findUserId(userDetails)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    }
+
     private User getCurrentUserOrNull(UserDetails userDetails) {
         if (userDetails == null) {
             return null;
         }
-        return userRepository.findByUsername(userDetails.getUsername()).orElse(null);
+        return currentUserResolver.findUser(userDetails).orElse(null);
     }
 
 
-    private PostResponseDTO mapPostToResponseDTO(Post post, User currentUser, int recursionDepth, Map<UUID, Long> likeCounts, Set<UUID> likedPostUuids) {
-        if (post == null) return null;
-
+    /**
+     * Maps a post without embedding any of its replies; listings add the first few with mapListing, and clients
+     * page through the rest via getComments, so a response's size does not grow with the size of its posts' threads.
+     */
+    private PostResponseDTO mapPostToResponseDTO(Post post, Set<UUID> likedPostUuids) {
         PostResponseDTO dto = new PostResponseDTO();
 
         dto.setPostUuid(post.getUuid());
@@ -608,7 +804,7 @@ public class PostServiceImpl implements PostService {
         dto.setUpdatedAt(post.getUpdatedAt());
         dto.setAuthorUsername(post.getAuthor().getUsername());
         dto.setAuthorUuid(post.getAuthor().getUuid());
-        dto.setShareCount(post.getShareCount());
+        dto.setShareCount(post.getShareCount() + shareCountAggregator.pendingDelta(post.getId()));
 
         // Use the UUID of the post to look up its depth in the map
         dto.setDepth(post.getDepth() != null ? post.getDepth() : 0);
@@ -620,36 +816,15 @@ public class PostServiceImpl implements PostService {
         }
 
         dto.setLikedByCurrentUser(likedPostUuids.contains(post.getUuid()));
-        dto.setLikeCount(likeCounts.getOrDefault(post.getUuid(), 0L).intValue());
+        // Counters are denormalized on the post, so no aggregate query is needed to render it.
+        dto.setLikeCount((int) (post.getLikeCount() + likeCountAggregator.pendingDelta(post.getId())));
+        dto.setCommentCount(post.getDescendantCount());
+        dto.setReplyCount(post.getCommentCount());
 
         if (post.getParentPost() != null) {
             dto.setParentPostUuid(post.getParentPost().getUuid());
         }
 
-        dto.setCommentCount(countNestedComments(post));
-
-
-        List<Post> commentList = post.getComments();
-        if (recursionDepth > 0 && commentList != null && !commentList.isEmpty()) {
-            List<PostResponseDTO> commentDTOs = new ArrayList<>();
-            for (Post comment : commentList) {
-                commentDTOs.add(mapPostToResponseDTO(comment, currentUser, recursionDepth - 1, likeCounts, likedPostUuids));
-            }
-            dto.setComments(commentDTOs);
-        }
-
         return dto;
     }
-
-    private long countNestedComments(Post post) {
-        if (post == null || post.getComments() == null || post.getComments().isEmpty()) {
-            return 0;
-        }
-
-        long count = post.getComments().size();
-        for (Post comment : post.getComments()) {
-            count += countNestedComments(comment);
-        }
-        return count;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,220 @@
+package com.SSarkar.Xplore.service.implementation;
+
+import com.SSarkar.Xplore.dto.post.PostCursor;
+import com.SSarkar.Xplore.entity.Post;
+import com.SSarkar.Xplore.entity.User;
+import com.SSarkar.Xplore.event.PostCreatedEvent;
+import com.SSarkar.Xplore.repository.FollowRepository;
+import com.SSarkar.Xplore.repository.PostRepository;
+import com.SSarkar.Xplore.repository.TimelineEntryRepository;
+import com.SSarkar.Xplore.service.contract.TimelineService;
+import com.SSarkar.Xplore.service.timeline.FeedPageStartCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TimelineServiceImpl implements TimelineService {
+
+    private final TimelineEntryRepository timelineEntryRepository;
+    private final PostRepository postRepository;
+    private final FollowRepository followRepository;
+    private final FeedPageStartCache pageStartCache;
+
+    // Segments of the keyset-paginated home feed, see PostCursor#segment.
+    private static final int TIMELINE_SEGMENT = 0;
+    private static final int DISCOVERY_SEGMENT = 1;
+
+    // Rows read per query when skipping to a page whose start is not cached.
+    private static final int SKIP_CHUNK_SIZE = 1000;
+
+    // A feed row before its post is loaded.
+    private record FeedItem(UUID postUuid, PostCursor cursor) {
+    }
+
+    // Authors with more followers than this are not fanned out on write; their posts are pulled in on read.
+    @Value("${app.timeline.fanout-follower-threshold}")
+    private long fanOutFollowerThreshold;
+
+    // Number of recent posts copied into a follower's timeline when they start following someone.
+    @Value("${app.timeline.follow-backfill-size}")
+    private int followBackfillSize;
+
+    /**
+     * Runs the fan-out only after the post has been committed, and off the request thread,
+     * so publishing a post never waits on the author's follower count.
+     */
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void handlePostCreated(PostCreatedEvent event) {
+        fanOutPost(event.postId());
+    }
+
+    @Override
+    @Transactional
+    public void fanOutPost(Long postId) {
+        Post post = postRepository.findById(postId).orElse(null);
+        if (post == null || post.getParentPost() != null || post.getPostType() != Post.PostType.TEXT_IMAGE) {
+            // Comments and shorts never appear in the home feed.
+            return;
+        }
+
+        User author = post.getAuthor();
+
+        // The author always sees their own post in their feed.
+        timelineEntryRepository.addToTimeline(author.getId(), post.getId(), post.getCreatedAt());
+
+        long followerCount = author.getFollowersCount();
+        if (followerCount > fanOutFollowerThreshold) {
+            log.info("Skipping fan-out of post {} : author {} has {} followers, it will be merged on read",
+                    post.getUuid(), author.getUsername(), followerCount);
+            return;
+        }
+
+        int written = timelineEntryRepository.fanOutToFollowers(post.getId(), author.getId(), post.getCreatedAt());
+        log.debug("Fanned out post {} to {} timelines", post.getUuid(), written);
+    }
+
+    @Override
+    @Transactional
+    public void onFollow(User follower, User followee) {
+        int copied = timelineEntryRepository.backfillFromAuthor(follower.getId(), followee.getId(), followBackfillSize);
+        log.debug("Copied {} posts of {} into the timeline of {}", copied, followee.getUsername(), follower.getUsername());
+    }
+
+    @Override
+    @Transactional
+    public void onUnfollow(User follower, User followee) {
+        int removed = timelineEntryRepository.deleteByOwnerAndAuthor(follower, followee);
+        log.debug("Removed {} posts of {} from the timeline of {}", removed, followee.getUsername(), follower.getUsername());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Post> getFeedPosts(User owner, Pageable pageable) {
+        int size = pageable.getPageSize();
+        List<FeedItem> items = readFeed(owner, pageStart(owner, pageable), size + 1);
+
+        boolean hasNext = items.size() > size;
+        if (hasNext) {
+            items = items.subList(0, size);
+            pageStartCache.put(owner.getId(), size, pageable.getPageNumber() + 1, items.get(size - 1).cursor());
+        }
+        List<Post> posts = postRepository.findAllByUuidInOrder(items.stream().map(FeedItem::postUuid).toList());
+        return new SliceImpl<>(posts, pageable, hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<FeedPost> getFeedPosts(User owner, PostCursor cursor, int limit) {
+        List<FeedItem> items = readFeed(owner, cursor, limit);
+
+        Map<UUID, Post> postsByUuid = new HashMap<>(items.size() * 2);
+        for (Post post : postRepository.findByUuidIn(items.stream().map(FeedItem::postUuid).toList())) {
+            postsByUuid.put(post.getUuid(), post);
+        }
+
+        List<FeedPost> rows = new ArrayList<>(items.size());
+        for (FeedItem item : items) {
+            Post post = postsByUuid.get(item.postUuid());
+            // Deleted in between.
+            if (post != null) {
+                rows.add(new FeedPost(post, item.cursor()));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Where the page starts: known for the first page and, usually, from serving the page before it.
+     * Otherwise the earlier rows are skipped with keyset reads from the closest page whose start is known.
+     */
+    private PostCursor pageStart(User owner, Pageable pageable) {
+        int size = pageable.getPageSize();
+        int page = pageable.getPageNumber();
+
+        PostCursor cursor = PostCursor.startOf(TIMELINE_SEGMENT);
+        int knownPage = 0;
+        for (int p = page; p > 0; p--) {
+            PostCursor start = pageStartCache.get(owner.getId(), size, p);
+            if (start != null) {
+                cursor = start;
+                knownPage = p;
+                break;
+            }
+        }
+
+        long remaining = (long) (page - knownPage) * size;
+        while (remaining > 0) {
+            int chunk = (int) Math.min(remaining, SKIP_CHUNK_SIZE);
+            List<FeedItem> skipped = readFeed(owner, cursor, chunk);
+            if (skipped.isEmpty()) {
+                // The feed ends before this page.
+                break;
+            }
+            cursor = skipped.get(skipped.size() - 1).cursor();
+            remaining -= skipped.size();
+            if (skipped.size() < chunk) {
+                break;
+            }
+        }
+        return cursor;
+    }
+
+    /**
+     * Reads up to {@code limit} feed rows after the cursor: the rest of the owner's timeline,
+     * then the discovery posts from the top once the timeline is exhausted.
+     */
+    private List<FeedItem> readFeed(User owner, PostCursor cursor, int limit) {
+        List<FeedItem> items = new ArrayList<>(limit);
+        PostCursor discoveryCursor = cursor;
+
+        if (cursor.segment() == TIMELINE_SEGMENT) {
+            addRows(items, readTimeline(owner, cursor, limit), TIMELINE_SEGMENT);
+            if (items.size() == limit) {
+                return items;
+            }
+            // The timeline ends within these rows; continue with the discovery posts from the top.
+            discoveryCursor = PostCursor.startOf(DISCOVERY_SEGMENT);
+        }
+
+        addRows(items, timelineEntryRepository.findDiscoveryRowsBefore(owner.getId(), fanOutFollowerThreshold,
+                discoveryCursor.createdAt(), discoveryCursor.id(), Limit.of(limit - items.size())), DISCOVERY_SEGMENT);
+        return items;
+    }
+
+    private List<TimelineEntryRepository.FeedRow> readTimeline(User owner, PostCursor cursor, int limit) {
+        List<Long> pullAuthorIds = followRepository.findFolloweeIdsWithMoreFollowersThan(owner, fanOutFollowerThreshold);
+
+        if (pullAuthorIds.isEmpty()) {
+            return timelineEntryRepository.findRowsByOwnerBefore(owner.getId(), cursor.createdAt(), cursor.id(), Limit.of(limit));
+        }
+        return timelineEntryRepository.findRowsByOwnerMergingAuthorsBefore(
+                owner.getId(), pullAuthorIds, cursor.createdAt(), cursor.id(), limit);
+    }
+
+    private static void addRows(List<FeedItem> items, List<TimelineEntryRepository.FeedRow> rows, int segment) {
+        for (TimelineEntryRepository.FeedRow row : rows) {
+            items.add(new FeedItem(row.getUuid(), new PostCursor(row.getCreatedAt(), row.getId(), segment)));
+        }
+    }
+}
@@ -5,13 +5,17 @@ import com.SSarkar.Xplore.dto.user.UserProfileUpdateDTO;
 import com.SSarkar.Xplore.dto.user.UserResponseDTO;
 import com.SSarkar.Xplore.entity.User;
 import com.SSarkar.Xplore.entity.UserProfile;
+import com.SSarkar.Xplore.event.UsernameChangedEvent;
 import com.SSarkar.Xplore.exception.ResourceNotFoundException;
-import com.SSarkar.Xplore.repository.FollowRepository;
+import com.SSarkar.Xplore.model.UserIdentity;
 import com.SSarkar.Xplore.repository.UserRepository;
 import com.SSarkar.Xplore.service.contract.CloudinaryService;
 import com.SSarkar.Xplore.service.contract.UserService;
+import com.SSarkar.Xplore.service.user.CurrentUserResolver;
+import com.SSarkar.Xplore.service.user.RelationshipResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -34,8 +38,10 @@ public class UserServiceImpl implements UserService {
 
 
     private final UserRepository userRepository;
-    private final FollowRepository followRepository;
     private final CloudinaryService cloudinaryService ;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CurrentUserResolver currentUserResolver;
+    private final RelationshipResolver relationshipResolver;
 
     @Override
     @Transactional(readOnly = true)
@@ -49,7 +55,7 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findByUsername(username).
                 orElseThrow(()->new ResourceNotFoundException("User not found"));
 
-        return mapUserToResponse(user,isFollowing(user,currentUserDetails)) ;
+        return mapUserToResponse(user, relationshipResolver.resolve(currentUserDetails, List.of(user)));
     }
 
     @Override
@@ -59,7 +65,7 @@ public class UserServiceImpl implements UserService {
         log.debug("UserProfileUpdateDTO {}",updateDTO.toString());
 
         // 1. Fetch the User entity based on the authenticated user's username.
-        User user = userRepository.findByUsername(currentUserDetails.getUsername())
+        User user = currentUserResolver.findUser(currentUserDetails)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + currentUserDetails.getUsername()));
 
         // 2. Get the associated UserProfile. If it doesn't exist, create a new one.
@@ -79,6 +85,7 @@ public class UserServiceImpl implements UserService {
             if(userRepository.existsByUsername(updateDTO.getUsername())){
                 throw new IllegalArgumentException("Username is already taken.");
             }
+            eventPublisher.publishEvent(new UsernameChangedEvent(user.getId(), user.getUsername()));
             user.setUsername(updateDTO.getUsername());
         }
 
@@ -107,13 +114,14 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public PagedResponseDTO<UserResponseDTO> getSuggestedUsers(UserDetails userDetails, Pageable pageable) {
-        User currentUser = userRepository.findByUsername(userDetails.getUsername())
+        UserIdentity currentUser = currentUserResolver.findIdentity(userDetails)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userDetails.getUsername()));
 
-        Page<User> suggestedUsersPage = userRepository.findTopUsersNotFollowedBy(currentUser.getUuid(), pageable);
+        Page<User> suggestedUsersPage = userRepository.findTopUsersNotFollowedBy(currentUser.uuid(), pageable);
 
+        RelationshipResolver.Relationships relationships = relationshipResolver.resolve(userDetails, suggestedUsersPage.getContent());
         List<UserResponseDTO> userResponseDTOList = suggestedUsersPage.getContent().stream()
-                .map(user -> mapUserToResponse(user, false))
+                .map(user -> mapUserToResponse(user, relationships))
                 .collect(Collectors.toList());
 
         return new PagedResponseDTO<>(
@@ -128,14 +136,15 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public PagedResponseDTO<UserResponseDTO> getAllUsers(UserDetails userDetails, Pageable pageable) {
-        User currentUser = userRepository.findByUsername(userDetails.getUsername())
+        UserIdentity currentUser = currentUserResolver.findIdentity(userDetails)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userDetails.getUsername()));
 
         // Fetch all users except the current user
-        Page<User> userPage = userRepository.findAllUsersExceptForCurrentUser(currentUser.getUuid(), pageable);
+        Page<User> userPage = userRepository.findAllUsersExceptForCurrentUser(currentUser.uuid(), pageable);
 
+        RelationshipResolver.Relationships relationships = relationshipResolver.resolve(userDetails, userPage.getContent());
         List<UserResponseDTO> userResponseDTOList = userPage.getContent().stream()
-                .map(user -> mapUserToResponse(user, isFollowing(user, userDetails)))
+                .map(user -> mapUserToResponse(user, relationships))
                 .collect(Collectors.toList());
 
         return new PagedResponseDTO<>(
@@ -150,22 +159,23 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public void updateEmailNotificationSetting(UserDetails currentUserDetails, boolean enabled) {
-        User user = userRepository.findByUsername(currentUserDetails.getUsername())
+        User user = currentUserResolver.findUser(currentUserDetails)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + currentUserDetails.getUsername()));
 
         user.setEmailNotificationsEnabled(enabled);
         userRepository.save(user);
     }
 
-    UserResponseDTO mapUserToResponse(User user,boolean isFollowing ) {
+    UserResponseDTO mapUserToResponse(User user, RelationshipResolver.Relationships relationships) {
         UserResponseDTO userResponse = new UserResponseDTO();
         userResponse.setUuid(user.getUuid());
         userResponse.setUsername(user.getUsername());
         userResponse.setEmail(user.getEmail());
-        userResponse.setFollowersCount(userRepository.countFollowers(user));
-        userResponse.setFollowingCount(userRepository.countFollowing(user));
-        userResponse.setPostCount(userRepository.countPosts(user));
-        userResponse.setCurrentUserFollowing(isFollowing);
+        userResponse.setFollowersCount(user.getFollowersCount());
+        userResponse.setFollowingCount(user.getFollowingCount());
+        userResponse.setPostCount(user.getPostCount());
+        userResponse.setCurrentUserFollowing(relationships.isFollowing(user));
+        userResponse.setFollowsCurrentUser(relationships.isFollowedBy(user));
         userResponse.setEmailNotificationsEnabled(user.isEmailNotificationsEnabled());
         userResponse.setCreatedAt(user.getCreatedAt());
 
@@ -177,18 +187,4 @@ public class UserServiceImpl implements UserService {
 
         return userResponse;
     }
-
-    private boolean isFollowing(User user , UserDetails currentUserDetails){
-        if (currentUserDetails == null) {
-            return false;
-        }
-
-        User currentUser = userRepository.findByUsername(currentUserDetails.getUsername()).orElse(null);
-
-        if (currentUser == null || currentUser.getId().equals(user.getId())) {
-            return false;
-        }
-
-        return followRepository.findByFollowerAndFollowee(currentUser, user).isPresent();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,189 @@
+package com.SSarkar.Xplore.service.notification;
+
+import com.SSarkar.Xplore.config.AsyncConfig;
+import com.SSarkar.Xplore.event.NotificationCreatedEvent;
+import com.SSarkar.Xplore.event.UnreadCountChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the open Server-Sent Events connections of each user and pushes new notifications and
+ * unread badge changes to them, so clients no longer have to poll the unread count.
+ * <p>
+ * Streams are async requests, so an idle connection holds no request thread, only its emitter here.
+ * The registry is in-process: with several instances, a user only receives events produced by the
+ * instance their stream is connected to.
+ * <p>
+ * Events are queued per stream and written by the {@code notificationStreamExecutor}, one stream at a time
+ * per sender thread and in order within a stream, so neither the committing transaction nor other users'
+ * streams wait for a client that reads slowly. A stream that falls too far behind is closed.
+ * <p>
+ * Events sent on a stream:
+ * <ul>
+ *     <li>{@code unread-count} - {@code {"count": n}} once on connect, then {@code {"delta": n}} on every change</li>
+ *     <li>{@code notification} - a new or updated (coalesced) notification, same shape as the list endpoint</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class NotificationStreamRegistry {
+
+    /**
+     * An open stream and the events not yet written to it. At most one sender drains it at a time.
+     */
+    private static final class Stream {
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Stream(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    // Each user's streams in the order they were opened, oldest first.
+    private final Map<Long, Deque<Stream>> streamsByUser = new ConcurrentHashMap<>();
+
+    private final TaskExecutor senderExecutor;
+
+    // Streams are closed after this long; EventSource clients reconnect on their own.
+    @Value("${app.notifications.stream.timeout-ms}")
+    private long timeoutMs;
+
+    @Value("${app.notifications.stream.max-connections-per-user}")
+    private int maxConnectionsPerUser;
+
+    @Value("${app.notifications.stream.max-pending-events}")
+    private int maxPendingEvents;
+
+    public NotificationStreamRegistry(@Qualifier(AsyncConfig.NOTIFICATION_STREAM_EXECUTOR) TaskExecutor senderExecutor) {
+        this.senderExecutor = senderExecutor;
+    }
+
+    public SseEmitter register(Long userId, long unreadCount) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Stream stream = new Stream(emitter);
+
+        Stream[] evicted = {null};
+        streamsByUser.compute(userId, (id, streams) -> {
+            if (streams == null) {
+                streams = new ConcurrentLinkedDeque<>();
+            }
+            if (streams.size() >= maxConnectionsPerUser) {
+                // The oldest stream is usually a tab that went away without closing it.
+                evicted[0] = streams.pollFirst();
+            }
+            streams.addLast(stream);
+            return streams;
+        });
+        if (evicted[0] != null) {
+            evicted[0].emitter.complete();
+        }
+
+        emitter.onCompletion(() -> remove(userId, stream));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> remove(userId, stream));
+
+        enqueue(userId, stream, SseEmitter.event().name("unread-count").data(Map.of("count", unreadCount)));
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onNotificationCreated(NotificationCreatedEvent event) {
+        Deque<Stream> streams = streamsByUser.get(event.recipientId());
+        if (streams == null) {
+            return;
+        }
+        for (Stream stream : streams) {
+            enqueue(event.recipientId(), stream, SseEmitter.event().name("notification").data(event.notification()));
+            if (event.unreadDelta() != 0) {
+                enqueue(event.recipientId(), stream, SseEmitter.event().name("unread-count").data(Map.of("delta", event.unreadDelta())));
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUnreadCountChanged(UnreadCountChangedEvent event) {
+        Deque<Stream> streams = streamsByUser.get(event.recipientId());
+        if (streams == null || event.delta() == 0) {
+            return;
+        }
+        for (Stream stream : streams) {
+            enqueue(event.recipientId(), stream, SseEmitter.event().name("unread-count").data(Map.of("delta", event.delta())));
+        }
+    }
+
+    /**
+     * Writes a comment line to every stream, so proxies don't cut idle connections
+     * and connections whose client went away are detected and dropped.
+     */
+    @Scheduled(fixedRateString = "${app.notifications.stream.heartbeat-interval-ms}")
+    public void sendHeartbeats() {
+        streamsByUser.forEach((userId, streams) -> {
+            for (Stream stream : streams) {
+                enqueue(userId, stream, SseEmitter.event().comment("heartbeat"));
+            }
+        });
+    }
+
+    private void enqueue(Long userId, Stream stream, SseEmitter.SseEventBuilder event) {
+        if (stream.pendingCount.incrementAndGet() > maxPendingEvents) {
+            // The client stopped reading; it reconnects and starts again from a fresh unread count.
+            log.warn("Closing notification stream of user {}: more than {} events unsent", userId, maxPendingEvents);
+            remove(userId, stream);
+            stream.emitter.complete();
+            return;
+        }
+        stream.pending.add(event);
+        if (stream.draining.compareAndSet(false, true)) {
+            senderExecutor.execute(() -> drain(userId, stream));
+        }
+    }
+
+    private void drain(Long userId, Stream stream) {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while ((event = stream.pending.poll()) != null) {
+                stream.pendingCount.decrementAndGet();
+                send(userId, stream, event);
+            }
+            stream.draining.set(false);
+            // An event queued after the last poll but before the flag was cleared found a drain already running.
+        } while (!stream.pending.isEmpty() && stream.draining.compareAndSet(false, true));
+    }
+
+    private void send(Long userId, Stream stream, SseEmitter.SseEventBuilder event) {
+        try {
+            stream.emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // The client disconnected (or the stream already completed).
+            remove(userId, stream);
+            stream.emitter.completeWithError(e);
+        }
+    }
+
+    private void remove(Long userId, Stream stream) {
+        streamsByUser.computeIfPresent(userId, (id, streams) -> {
+            streams.remove(stream);
+            return streams.isEmpty() ? null : streams;
+        });
+    }
+}
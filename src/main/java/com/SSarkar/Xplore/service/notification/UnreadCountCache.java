@@ -0,0 +1,67 @@
+package com.SSarkar.Xplore.service.notification;
+
+import com.SSarkar.Xplore.event.NotificationCreatedEvent;
+import com.SSarkar.Xplore.event.UnreadCountChangedEvent;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-user unread notification counts kept in memory, so the badge is served without a COUNT
+ * over the notifications table.
+ * <p>
+ * A count is loaded from the database on first read and then kept current by the same after-commit
+ * events that feed the notification streams. Entries expire a fixed time after they were loaded,
+ * which also bounds how long any drift (e.g. a notification committed while the count was loading)
+ * can survive before the next recount.
+ */
+@Component
+public class UnreadCountCache {
+
+    private final Cache<Long, AtomicLong> counts;
+
+    public UnreadCountCache(@Value("${app.notifications.unread-cache.max-size}") long maxSize,
+                            @Value("${app.notifications.unread-cache.expire-after-write-ms}") long expireAfterWriteMs) {
+        this.counts = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWriteMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Returns the user's unread count, loading it with {@code loader} if it is not cached.
+     */
+    public long get(Long userId, LongSupplier loader) {
+        try {
+            return counts.get(userId, () -> new AtomicLong(loader.getAsLong())).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to load unread notification count for user " + userId, e.getCause());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onNotificationCreated(NotificationCreatedEvent event) {
+        add(event.recipientId(), event.unreadDelta());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUnreadCountChanged(UnreadCountChangedEvent event) {
+        add(event.recipientId(), event.delta());
+    }
+
+    private void add(Long userId, long delta) {
+        // Counts that are not cached are simply loaded fresh on the next read.
+        AtomicLong count = counts.getIfPresent(userId);
+        if (count != null && delta != 0) {
+            count.updateAndGet(current -> Math.max(0, current + delta));
+        }
+    }
+}
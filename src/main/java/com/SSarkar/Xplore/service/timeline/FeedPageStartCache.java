@@ -0,0 +1,44 @@
+package com.SSarkar.Xplore.service.timeline;
+
+import com.SSarkar.Xplore.dto.post.PostCursor;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Where each page of a user's page-numbered home feed starts, remembered when the page before it is served.
+ * <p>
+ * Clients of the page-numbered feed mostly read page after page, so the next page can then be read with a
+ * keyset query from here instead of skipping all earlier rows. Serving a page always overwrites the start of
+ * the next one, so reading from page 0 onwards never sees stale boundaries.
+ */
+@Component
+public class FeedPageStartCache {
+
+    private record Key(Long ownerId, int pageSize, int pageNumber) {
+    }
+
+    private final Cache<Key, PostCursor> starts;
+
+    public FeedPageStartCache(@Value("${app.timeline.page-start-cache.max-size}") long maxSize,
+                              @Value("${app.timeline.page-start-cache.expire-after-write-ms}") long expireAfterWriteMs) {
+        this.starts = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWriteMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Returns the cursor just before the first row of the page, or {@code null} if it is not known.
+     */
+    public PostCursor get(Long ownerId, int pageSize, int pageNumber) {
+        return starts.getIfPresent(new Key(ownerId, pageSize, pageNumber));
+    }
+
+    public void put(Long ownerId, int pageSize, int pageNumber, PostCursor start) {
+        starts.put(new Key(ownerId, pageSize, pageNumber), start);
+    }
+}
@@ -0,0 +1,119 @@
+package com.SSarkar.Xplore.service.user;
+
+import com.SSarkar.Xplore.entity.User;
+import com.SSarkar.Xplore.event.UsernameChangedEvent;
+import com.SSarkar.Xplore.model.UserIdentity;
+import com.SSarkar.Xplore.repository.UserRepository;
+import com.SSarkar.Xplore.security.AuthenticatedUser;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves the user behind a request's {@link UserDetails} with at most one query per request.
+ * <p>
+ * Usernames are mapped to {@link UserIdentity} through a bounded cache shared by all requests, dropped on commit
+ * when the user is renamed, and each request keeps the identities it resolved in its own map, so it sees one
+ * consistent user even if the shared entry is evicted meanwhile. The {@code User} entity itself is loaded by ID:
+ * with the request-wide persistence context (open-in-view, see {@code OpenEntityManagerInViewConfig}), later loads
+ * in the same request come from the persistence context instead of the database. Endpoints left out of
+ * open-in-view (streams) get a fresh persistence context per transaction, so they should only ask for the ID.
+ */
+@Component
+public class CurrentUserResolver {
+
+    private static final String REQUEST_IDENTITIES = CurrentUserResolver.class.getName() + ".identities";
+
+    private final UserRepository userRepository;
+    private final Cache<String, UserIdentity> identities;
+
+    public CurrentUserResolver(UserRepository userRepository,
+                               @Value("${app.users.identity-cache.max-size}") long maxSize,
+                               @Value("${app.users.identity-cache.expire-after-write-ms}") long expireAfterWriteMs) {
+        this.userRepository = userRepository;
+        this.identities = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWriteMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    public Optional<Long> findUserId(UserDetails userDetails) {
+        if (userDetails instanceof AuthenticatedUser principal) {
+            return Optional.of(principal.getId());
+        }
+        return findIdentity(userDetails).map(UserIdentity::id);
+    }
+
+    public Optional<UserIdentity> findIdentity(UserDetails userDetails) {
+        if (userDetails instanceof AuthenticatedUser principal) {
+            return Optional.of(new UserIdentity(principal.getId(), principal.getUuid(), principal.getUsername()));
+        }
+        return findIdentity(userDetails.getUsername());
+    }
+
+    /**
+     * Loads the current user's entity, for callers that read or change more than its identity.
+     */
+    public Optional<User> findUser(UserDetails userDetails) {
+        return findUserId(userDetails).flatMap(userRepository::findById);
+    }
+
+    /**
+     * Returns an uninitialised reference to the current user, for callers that only need it as a
+     * query parameter or foreign key.
+     */
+    public Optional<User> findUserReference(UserDetails userDetails) {
+        return findUserId(userDetails).map(userRepository::getReferenceById);
+    }
+
+    private Optional<UserIdentity> findIdentity(String username) {
+        Map<String, UserIdentity> requestIdentities = requestIdentities();
+        UserIdentity identity = requestIdentities != null ? requestIdentities.get(username) : null;
+        if (identity == null) {
+            identity = identities.getIfPresent(username);
+        }
+        if (identity == null) {
+            // Unknown usernames are not cached, so a user registered under that name is found right away.
+            identity = userRepository.findIdentityByUsername(username).orElse(null);
+            if (identity == null) {
+                return Optional.empty();
+            }
+            identities.put(username, identity);
+        }
+        if (requestIdentities != null) {
+            requestIdentities.put(username, identity);
+        }
+        return Optional.of(identity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, UserIdentity> requestIdentities() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            // Not called from a web request (e.g. a scheduled job).
+            return null;
+        }
+        Map<String, UserIdentity> map = (Map<String, UserIdentity>) attributes.getAttribute(REQUEST_IDENTITIES, RequestAttributes.SCOPE_REQUEST);
+        if (map == null) {
+            map = new HashMap<>();
+            attributes.setAttribute(REQUEST_IDENTITIES, map, RequestAttributes.SCOPE_REQUEST);
+        }
+        return map;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUsernameChanged(UsernameChangedEvent event) {
+        identities.invalidate(event.oldUsername());
+    }
+}
@@ -0,0 +1,67 @@
+package com.SSarkar.Xplore.service.user;
+
+import com.SSarkar.Xplore.entity.User;
+import com.SSarkar.Xplore.repository.FollowRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Answers, for a page of users, which of them the current user follows and which follow the current user,
+ * with one query for the whole page. Used by every endpoint that lists users.
+ */
+@Component
+@RequiredArgsConstructor
+public class RelationshipResolver {
+
+    private final FollowRepository followRepository;
+    private final CurrentUserResolver currentUserResolver;
+
+    /**
+     * The current user's relationships to one page of users, by user ID.
+     */
+    public record Relationships(Set<Long> followingIds, Set<Long> followedByIds) {
+
+        private static final Relationships NONE = new Relationships(Set.of(), Set.of());
+
+        // Whether the current user follows the user
+        public boolean isFollowing(User user) {
+            return followingIds.contains(user.getId());
+        }
+
+        // Whether the user follows the current user
+        public boolean isFollowedBy(User user) {
+            return followedByIds.contains(user.getId());
+        }
+    }
+
+    /**
+     * Resolves the relationships between the current user (if any) and the given users.
+     */
+    public Relationships resolve(UserDetails currentUserDetails, Collection<User> users) {
+        if (currentUserDetails == null || users.isEmpty()) {
+            return Relationships.NONE;
+        }
+        Long currentUserId = currentUserResolver.findUserId(currentUserDetails).orElse(null);
+        if (currentUserId == null) {
+            return Relationships.NONE;
+        }
+
+        List<Long> userIds = users.stream().map(User::getId).toList();
+        Set<Long> followingIds = new HashSet<>();
+        Set<Long> followedByIds = new HashSet<>();
+        for (FollowRepository.FollowPair follow : followRepository.findFollowsBetween(currentUserId, userIds)) {
+            if (follow.getFollowerId().equals(currentUserId)) {
+                followingIds.add(follow.getFolloweeId());
+            } else {
+                followedByIds.add(follow.getFollowerId());
+            }
+        }
+        return new Relationships(followingIds, followedByIds);
+    }
+}
@@ -0,0 +1,34 @@
+-- Post counters: posts.like_count, comment_count and descendant_count.
+--
+-- Run once, before deploying the first version that maintains these counters. No instance writes them yet
+-- at that point, so they can be set straight from the underlying rows. Later drift is repaired by
+-- PostCounterReconciliationJob.
+
+BEGIN;
+
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS like_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS comment_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS descendant_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE posts p SET like_count = l.cnt
+FROM (SELECT post_id, COUNT(*) AS cnt FROM post_likes GROUP BY post_id) l
+WHERE l.post_id = p.id;
+
+-- Direct replies
+UPDATE posts p SET comment_count = c.cnt
+FROM (SELECT parent_post_id, COUNT(*) AS cnt FROM posts WHERE parent_post_id IS NOT NULL GROUP BY parent_post_id) c
+WHERE c.parent_post_id = p.id;
+
+-- Whole subtree, walked through parent_post_id since legacy posts may not have a thread_path yet
+WITH RECURSIVE ancestry (ancestor_id, post_id) AS (
+    SELECT parent_post_id, id FROM posts WHERE parent_post_id IS NOT NULL
+    UNION ALL
+    SELECT p.parent_post_id, a.post_id
+    FROM ancestry a JOIN posts p ON p.id = a.ancestor_id
+    WHERE p.parent_post_id IS NOT NULL
+)
+UPDATE posts p SET descendant_count = d.cnt
+FROM (SELECT ancestor_id, COUNT(*) AS cnt FROM ancestry GROUP BY ancestor_id) d
+WHERE d.ancestor_id = p.id;
+
+COMMIT;